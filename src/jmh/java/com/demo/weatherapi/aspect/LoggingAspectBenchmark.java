@@ -0,0 +1,79 @@
+package com.demo.weatherapi.aspect;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.mapper.ForecastMapper;
+import com.demo.weatherapi.service.ForecastService;
+import com.demo.weatherapi.service.ForecastServiceImpl;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Накладные расходы LoggingAspect на вызов сервиса, отвечающего из кэша:
+ * none - без прокси, disabled - аспект выключен, sampled - выборка 1%,
+ * always - трассируется каждый вызов. Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoggingAspectBenchmark {
+
+    private static final int CITY_ID = 1;
+    private static final int FORECAST_ID = 1;
+
+    @Param({"none", "disabled", "sampled", "always"})
+    private String mode;
+
+    private ForecastService forecastService;
+
+    @Setup
+    public void setUp() {
+        ForecastCache cache = new ForecastCache(10_000, 100_000, Duration.ofHours(1), 16);
+        List<ForecastDto> forecasts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            forecasts.add(new ForecastDto(FORECAST_ID + i, CITY_ID,
+                    LocalDate.of(2025, 1, 1).plusDays(i), 1.0, 5.0, 70.0, 3.0));
+        }
+        cache.cacheSingleForecast(forecasts.get(0));
+        cache.cacheForecastsByCityId(CITY_ID, forecasts);
+
+        ForecastService target =
+                new ForecastServiceImpl(null, null, null, new ForecastMapper(), cache);
+        forecastService = switch (mode) {
+            case "none" -> target;
+            case "disabled" -> proxy(target, false, 0);
+            case "sampled" -> proxy(target, true, 0.01);
+            case "always" -> proxy(target, true, 1.0);
+            default -> throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        };
+    }
+
+    @Benchmark
+    public ForecastDto readSingle() {
+        return forecastService.read(FORECAST_ID);
+    }
+
+    @Benchmark
+    public List<ForecastDto> readCityForecasts() {
+        return forecastService.getForecastsByCityId(CITY_ID);
+    }
+
+    private static ForecastService proxy(ForecastService target, boolean enabled,
+                                         double sampleRate) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new LoggingAspect(enabled, sampleRate, 256, Duration.ofSeconds(1)));
+        return factory.getProxy();
+    }
+}
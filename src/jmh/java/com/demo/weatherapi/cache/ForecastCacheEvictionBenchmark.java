@@ -0,0 +1,67 @@
+package com.demo.weatherapi.cache;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Задержка записи прогноза с вытеснением кэша его города при разном
+ * заполнении кэша: с обратным индексом по городу время не должно расти
+ * вместе с cacheSize, в отличие от полного прохода removeIf.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForecastCacheEvictionBenchmark {
+
+    private static final int CITIES = 1000;
+    private static final int CITY_ID = 0;
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 11);
+
+    @Param({"1000", "100000", "1000000"})
+    private int cacheSize;
+
+    private ForecastCache forecastCache;
+    private BoundedCache<Integer, ForecastDto> scannedCache;
+    private ForecastDto forecast;
+
+    @Setup
+    public void setUp() {
+        forecastCache = new ForecastCache(cacheSize, cacheSize, Duration.ofHours(1), 16);
+        scannedCache = new BoundedCache<>(cacheSize, Duration.ofHours(1), 16, value -> 1);
+        for (int id = 1; id < cacheSize; id++) {
+            ForecastDto dto = forecast(id, 1 + id % (CITIES - 1));
+            forecastCache.cacheSingleForecast(dto);
+            scannedCache.put(id, dto);
+        }
+        forecast = forecast(cacheSize, CITY_ID);
+    }
+
+    @Benchmark
+    public void indexedEviction() {
+        forecastCache.cacheSingleForecast(forecast);
+        forecastCache.cacheForecastsByCityId(CITY_ID, List.of(forecast));
+        forecastCache.evictForecastsByCity(CITY_ID);
+    }
+
+    @Benchmark
+    public int scanEviction() {
+        scannedCache.put(forecast.getId(), forecast);
+        return scannedCache.removeIf((id, dto) -> dto.getCityId() == CITY_ID);
+    }
+
+    private static ForecastDto forecast(int id, int cityId) {
+        return new ForecastDto(id, cityId, DATE, 1.0, 5.0, 70.0, 3.0);
+    }
+}
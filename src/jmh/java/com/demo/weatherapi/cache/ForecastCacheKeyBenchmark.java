@@ -0,0 +1,67 @@
+package com.demo.weatherapi.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Построение ключа списка и поиск по нему: прежний ключ-строка,
+ * склеиваемый на каждый запрос, против record-ключа ForecastCacheKey.
+ * Запуск: ./gradlew jmh (аллокации видны с -prof gc)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForecastCacheKeyBenchmark {
+
+    private static final int ENTRIES = 10_000;
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 11);
+
+    private final BoundedCache<String, Object> stringKeyCache =
+            new BoundedCache<>(ENTRIES, Duration.ofHours(1), 16, value -> 1);
+    private final BoundedCache<ForecastCacheKey, Object> recordKeyCache =
+            new BoundedCache<>(ENTRIES, Duration.ofHours(1), 16, value -> 1);
+
+    private String name;
+    private int cityId;
+
+    @Setup
+    public void setUp() {
+        Object value = new Object();
+        for (int i = 0; i < ENTRIES / 2; i++) {
+            stringKeyCache.put("city:" + i, value);
+            stringKeyCache.put("city:" + "City" + i + ":date:" + DATE, value);
+            recordKeyCache.put(new ForecastCacheKey.ByCity(i), value);
+            recordKeyCache.put(new ForecastCacheKey.ByNameAndDate("City" + i, DATE), value);
+        }
+        name = "City42";
+        cityId = 42;
+    }
+
+    @Benchmark
+    public Object stringKeyByCity() {
+        return stringKeyCache.get("city:" + cityId);
+    }
+
+    @Benchmark
+    public Object recordKeyByCity() {
+        return recordKeyCache.get(new ForecastCacheKey.ByCity(cityId));
+    }
+
+    @Benchmark
+    public Object stringKeyByNameAndDate() {
+        return stringKeyCache.get("city:" + name + ":date:" + DATE);
+    }
+
+    @Benchmark
+    public Object recordKeyByNameAndDate() {
+        return recordKeyCache.get(new ForecastCacheKey.ByNameAndDate(name, DATE));
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.weatherapi.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Обработка пачки одновременных запросов в двух режимах: пул из 200
+ * платформенных потоков (как у Tomcat по умолчанию) и поток на запрос
+ * на виртуальных потоках. Запрос ждёт внешний вызов remoteMillis и затем
+ * держит одно из 20 соединений (пул Hikari) dbMillis. Время пачки - это
+ * задержка самого медленного запроса, requests / время - пропускная
+ * способность. Пока узкое место - пул соединений, режимы почти равны;
+ * виртуальные потоки выигрывают, когда запросы ждут вне БД.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONNECTIONS = 20;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"0", "20"})
+    private int remoteMillis;
+
+    @Param({"1"})
+    private int dbMillis;
+
+    private ExecutorService executor;
+    private final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        List<Future<Integer>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            responses.add(executor.submit(this::handle));
+        }
+        int ok = 0;
+        for (Future<Integer> response : responses) {
+            ok += response.get();
+        }
+        return ok;
+    }
+
+    private int handle() throws InterruptedException {
+        if (remoteMillis > 0) {
+            Thread.sleep(remoteMillis);
+        }
+        connections.acquire();
+        try {
+            Thread.sleep(dbMillis);
+        } finally {
+            connections.release();
+        }
+        return 1;
+    }
+}
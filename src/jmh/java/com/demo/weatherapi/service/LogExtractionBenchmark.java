@@ -0,0 +1,92 @@
+package com.demo.weatherapi.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Извлечение одного дня из синтетического лога размером sizeMb:
+ * полный просмотр файла против поиска диапазона по LogDateIndex.
+ * Индекс строится в setUp, как после первого обращения к логу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LogExtractionBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 30;
+
+    @Param({"2048"})
+    private int sizeMb;
+
+    private Path directory;
+    private Path source;
+    private Path target;
+    private LogDateIndex index;
+    private String date;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-benchmark");
+        source = directory.resolve("app.log");
+        target = directory.resolve("extracted.log");
+        date = FIRST_DAY.plusDays(DAYS / 2).toString();
+
+        long bytesPerDay = (long) sizeMb * 1024 * 1024 / DAYS;
+        String payload = " INFO  c.d.w.service.ForecastServiceImpl - Forecast read from cache\n";
+        try (BufferedWriter writer = Files.newBufferedWriter(source)) {
+            for (int day = 0; day < DAYS; day++) {
+                String prefix = FIRST_DAY.plusDays(day) + " 12:00:00";
+                for (long written = 0; written < bytesPerDay;
+                     written += prefix.length() + payload.length()) {
+                    writer.write(prefix);
+                    writer.write(payload);
+                }
+            }
+        }
+
+        index = new LogDateIndex(source, directory.resolve("app.log.idx"));
+        index.update();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long fullScan() throws IOException {
+        return LogFileExtractor.extract(source, date, target, bytes -> { });
+    }
+
+    @Benchmark
+    public long indexed() throws IOException {
+        LogDateIndex.Range range = index.find(date);
+        return LogFileExtractor.copyRange(source, range.start(), range.end(), target, bytes -> { });
+    }
+}
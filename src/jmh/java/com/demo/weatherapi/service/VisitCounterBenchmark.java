@@ -0,0 +1,39 @@
+package com.demo.weatherapi.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Инкремент счётчика одного популярного маршрута из нескольких потоков:
+ * прежняя схема computeIfAbsent + AtomicInteger против VisitCounterService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class VisitCounterBenchmark {
+
+    private static final String ROUTE = "/forecast/{id}";
+
+    private final ConcurrentHashMap<String, AtomicInteger> atomicCounters =
+            new ConcurrentHashMap<>();
+    private final VisitCounterService visitCounterService = new VisitCounterService(1000);
+
+    @Benchmark
+    public int atomicInteger() {
+        return atomicCounters.computeIfAbsent(ROUTE, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    @Benchmark
+    public void longAdder() {
+        visitCounterService.incrementVisit(ROUTE);
+    }
+}
@@ -1,30 +1,55 @@
 package com.demo.weatherapi.aspect;
 
-import java.util.Arrays;
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 
+/**
+ * Трассировка вызовов контроллеров и сервисов. Время замеряется для каждого
+ * вызова, но в лог попадает только выборка (tracing.sample-rate) и медленные
+ * вызовы. Аргументы и результат форматируются лениво, только при включённом
+ * DEBUG, и обрезаются до tracing.max-value-length символов.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
 
     private static final Logger logger = LoggerFactory.getLogger("WeatherLogger");
 
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int maxValueLength;
+    private final long slowThresholdNanos;
+
+    public LoggingAspect(@Value("${tracing.enabled:true}") boolean enabled,
+                         @Value("${tracing.sample-rate:0.01}") double sampleRate,
+                         @Value("${tracing.max-value-length:256}") int maxValueLength,
+                         @Value("${tracing.slow-threshold:500ms}") Duration slowThreshold) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxValueLength = maxValueLength;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
     @Pointcut("within(com.demo.weatherapi.controller..*)")
     public void controllerMethods() {}
 
@@ -67,51 +92,100 @@ public class LoggingAspect {
         return ex.getMessage();
     }
 
-    @Before("controllerMethods() || serviceMethods()")
-    public void logBefore(org.aspectj.lang.JoinPoint joinPoint) {
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-
-        Object[] args = joinPoint.getArgs();
-        String argsStr = (args != null) ? Arrays.toString(args) : "[]";
+    @Around("controllerMethods() || serviceMethods()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
 
-        logger.info("➡ Вход в метод: {}.{} с аргументами: {}",
-                methodSignature.getDeclaringType().getSimpleName(),
-                methodSignature.getName(),
-                argsStr);
-    }
+        boolean sampled = sampleRate >= 1.0
+                || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        long start = System.nanoTime();
+        Object result = joinPoint.proceed();
+        long elapsed = System.nanoTime() - start;
 
-    @AfterReturning(pointcut = "controllerMethods() || serviceMethods()", returning = "result")
-    public void logAfter(org.aspectj.lang.JoinPoint joinPoint, Object result) {
         if (result instanceof ResponseEntity<?> response
                 && response.getStatusCode().is4xxClientError()) {
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            logger.warn("Клиентская ошибка в {}.{}: статус {} - тело: {}",
-                    signature.getDeclaringType().getSimpleName(),
-                    signature.getName(),
+            logger.warn("Клиентская ошибка в {}: статус {} - тело: {}",
+                    new MethodName(joinPoint),
                     response.getStatusCode().value(),
-                    response.getBody());
-            return;
+                    new Abbreviated(response.getBody(), maxValueLength));
+        } else if (elapsed >= slowThresholdNanos) {
+            logger.warn("Медленный вызов: {} выполнен за {} мс с аргументами: {}",
+                    new MethodName(joinPoint),
+                    elapsed / 1_000_000,
+                    new Abbreviated(joinPoint.getArgs(), maxValueLength));
+        } else if (sampled) {
+            logger.info("Метод: {} выполнен за {} мкс", new MethodName(joinPoint), elapsed / 1_000);
+            logger.debug("Аргументы {}: {}, результат: {}",
+                    new MethodName(joinPoint),
+                    new Abbreviated(joinPoint.getArgs(), maxValueLength),
+                    new Abbreviated(result, maxValueLength));
         }
+        return result;
+    }
 
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        logger.info("⬅ Выход из метода: {}.{} с результатом: {}",
-                methodSignature.getDeclaringType().getSimpleName(),
-                methodSignature.getName(),
-                result);
+    // Имя метода вычисляется только если сообщение действительно пишется в лог
+    private record MethodName(JoinPoint joinPoint) {
+        @Override
+        public String toString() {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            return signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        }
     }
 
-    @Around("controllerMethods() || serviceMethods()")
-    public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
-        Object result = joinPoint.proceed();
-        long timeTaken = System.currentTimeMillis() - start;
+    private record Abbreviated(Object value, int maxLength) {
+        @Override
+        public String toString() {
+            return abbreviate(value, maxLength);
+        }
+    }
 
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        logger.info("Метод: {}.{} выполнен за {} мс",
-                methodSignature.getDeclaringType().getSimpleName(),
-                methodSignature.getName(),
-                timeTaken);
+    // Коллекции и массивы обходятся поэлементно, поэтому большой список
+    // не превращается в строку целиком ради первых maxLength символов
+    static String abbreviate(Object value, int maxLength) {
+        StringBuilder sb = new StringBuilder(Math.min(maxLength, 64) + 16);
+        append(sb, value, maxLength);
+        if (sb.length() > maxLength) {
+            sb.setLength(maxLength);
+            sb.append("...");
+        }
+        return sb.toString();
+    }
 
-        return result;
+    private static void append(StringBuilder sb, Object value, int maxLength) {
+        if (value instanceof Collection<?> collection) {
+            sb.append("(size=").append(collection.size()).append(")[");
+            appendElements(sb, collection.iterator(), maxLength);
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append("(size=").append(map.size()).append("){");
+            appendElements(sb, map.entrySet().iterator(), maxLength);
+        } else if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            sb.append('[');
+            for (int i = 0; i < length && sb.length() <= maxLength; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                append(sb, Array.get(value, i), maxLength);
+            }
+            sb.append(']');
+        } else {
+            String text = String.valueOf(value);
+            int remaining = maxLength - sb.length() + 1;
+            sb.append(text, 0, Math.max(0, Math.min(text.length(), remaining)));
+        }
+    }
+
+    private static void appendElements(StringBuilder sb, Iterator<?> iterator, int maxLength) {
+        boolean first = true;
+        while (iterator.hasNext() && sb.length() <= maxLength) {
+            if (!first) {
+                sb.append(", ");
+            }
+            append(sb, iterator.next(), maxLength);
+            first = false;
+        }
+        sb.append(iterator.hasNext() ? ", ...]" : "]");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.demo.weatherapi.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Потокобезопасный ограниченный кэш: ключи распределяются по сегментам,
+ * каждый сегмент — отдельный LRU со своей блокировкой, поэтому потоки,
+ * работающие с разными ключами, почти не конкурируют между собой.
+ */
+public class BoundedCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long segmentMaxWeight;
+    private final long ttlNanos;
+    private final ToIntFunction<? super V> weigher;
+    private final LongSupplier ticker;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(long maxWeight, Duration ttl, int concurrencyLevel,
+                        ToIntFunction<? super V> weigher) {
+        this(maxWeight, ttl, concurrencyLevel, weigher, (key, value) -> { }, System::nanoTime);
+    }
+
+    public BoundedCache(long maxWeight, Duration ttl, int concurrencyLevel,
+                        ToIntFunction<? super V> weigher,
+                        BiConsumer<? super K, ? super V> evictionListener) {
+        this(maxWeight, ttl, concurrencyLevel, weigher, evictionListener, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(long maxWeight, Duration ttl, int concurrencyLevel,
+                 ToIntFunction<? super V> weigher,
+                 BiConsumer<? super K, ? super V> evictionListener, LongSupplier ticker) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        int segmentCount = concurrencyLevel <= 1
+                ? 1 : Integer.highestOneBit((concurrencyLevel - 1) << 1);
+        if (segmentCount > maxWeight) {
+            segmentCount = Integer.highestOneBit((int) Math.min(maxWeight, Integer.MAX_VALUE));
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segmentMask = segmentCount - 1;
+        this.segmentMaxWeight = Math.max(1, maxWeight / segmentCount);
+        this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative() ? 0 : ttl.toNanos();
+        this.weigher = weigher;
+        this.ticker = ticker;
+        this.evictionListener = evictionListener;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(entry, ticker.getAsLong())) {
+                segment.removeEntry(key, entry);
+                evictions.increment();
+                evictionListener.accept(key, entry.value());
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Поместится ли значение в кэш: значение тяжелее сегмента put не сохранит.
+     */
+    public boolean fits(V value) {
+        return weightOf(value) <= segmentMaxWeight;
+    }
+
+    /**
+     * Возвращает прежнее значение ключа. Значение, которое не помещается в
+     * сегмент, не сохраняется: прежнее значение ключа вытесняется с вызовом
+     * слушателя, а put возвращает null.
+     */
+    public V put(K key, V value) {
+        int weight = weightOf(value);
+        long now = ticker.getAsLong();
+        long expiresAt = ttlNanos == 0 ? Long.MAX_VALUE : now + ttlNanos;
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (weight > segmentMaxWeight) {
+                Entry<V> displaced = segment.entries.get(key);
+                if (displaced != null) {
+                    segment.removeEntry(key, displaced);
+                    evictions.increment();
+                    evictionListener.accept(key, displaced.value());
+                }
+                return null;
+            }
+            Entry<V> previous = segment.entries.put(key, new Entry<>(value, weight, expiresAt));
+            if (previous != null) {
+                segment.weight -= previous.weight();
+            }
+            segment.weight += weight;
+            evictIfNeeded(segment, now);
+            return previous != null ? previous.value() : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            segment.weight -= entry.weight();
+            return entry.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                Iterator<Map.Entry<K, Entry<V>>> it = segment.entries.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<K, Entry<V>> e = it.next();
+                    if (filter.test(e.getKey(), e.getValue().value())) {
+                        segment.weight -= e.getValue().weight();
+                        it.remove();
+                        removed++;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+                segment.weight = 0;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+                weight += segment.weight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, weight);
+    }
+
+    private void evictIfNeeded(Segment<K, V> segment, long now) {
+        Iterator<Map.Entry<K, Entry<V>>> it = segment.entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            if (segment.weight <= segmentMaxWeight && !isExpired(eldest.getValue(), now)) {
+                break;
+            }
+            segment.weight -= eldest.getValue().weight();
+            it.remove();
+            evictions.increment();
+            evictionListener.accept(eldest.getKey(), eldest.getValue().value());
+        }
+    }
+
+    private int weightOf(V value) {
+        return Math.max(1, weigher.applyAsInt(value));
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return entry.expiresAt() != Long.MAX_VALUE && now - entry.expiresAt() >= 0;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & segmentMask];
+    }
+
+    private record Entry<V>(V value, int weight, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        private void removeEntry(K key, Entry<V> entry) {
+            entries.remove(key);
+            weight -= entry.weight();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.demo.weatherapi.cache;
+
+public record CacheStats(long hits, long misses, long evictions, long size, long weight) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
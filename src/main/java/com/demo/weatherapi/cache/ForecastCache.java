@@ -1,34 +1,80 @@
 package com.demo.weatherapi.cache;
 
 import com.demo.weatherapi.dto.ForecastDto;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.LinkedHashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Кэш прогнозов по id и списков прогнозов с обратными индексами по городу.
+ * Сброс внутри транзакции выполняется после её коммита, иначе параллельное
+ * чтение успело бы закэшировать ещё не изменённые данные. При чтении с реплик
+ * записи сброшенного города не кэшируются ещё datasource.routing.max-lag:
+ * отстающая реплика в это время может вернуть данные до коммита.
+ */
 @Component
 public class ForecastCache {
     private static final Logger log = LoggerFactory.getLogger(ForecastCache.class);
-    private static final int MAX_CACHE_SIZE = 50;
-    String cityName = "city:";
-    String dateStr = ":date:";
-
-    private final Map<Integer, ForecastDto> singleForecastCache = new ConcurrentHashMap<>();
-
-    private final Map<String, List<ForecastDto>> listForecastCache = new LinkedHashMap<>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, List<ForecastDto>> eldest) {
-            boolean shouldRemove = size() > MAX_CACHE_SIZE;
-            if (shouldRemove) {
-                log.debug("Evicting oldest cache entry: {}", eldest.getKey());
-            }
-            return shouldRemove;
+
+    private final BoundedCache<Integer, ForecastDto> singleForecastCache;
+
+    private final BoundedCache<ForecastCacheKey, CachedList> listForecastCache;
+
+    // Обратные индексы: какие записи кэша относятся к городу (и к городу на дату)
+    private final Map<Integer, Set<Integer>> forecastIdsByCity = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<ForecastCacheKey>> listKeysByCity = new ConcurrentHashMap<>();
+    private final Map<CityDate, Set<ForecastCacheKey>> listKeysByCityAndDate = new ConcurrentHashMap<>();
+
+    // Запись в кэш (значение + индекс) и вытеснение по городу выполняются под блокировкой
+    // города, иначе вытеснение между ними оставляет в кэше запись без индекса.
+    // Слушатели вытеснения BoundedCache работают под блокировкой сегмента, а не города,
+    // поэтому индекс добавляется уже после put: слушатель прежнего значения к этому
+    // моменту отработал и не снимет индекс нового. Лишний индекс безвреден - сброс
+    // города просто не найдёт значения
+    private final ReentrantLock[] cityLocks;
+
+    private final long holdOffNanos;
+    // Город -> System.nanoTime(), до которого его записи не кэшируются
+    private final Map<Integer, Long> holdOffUntil = new ConcurrentHashMap<>();
+
+    public ForecastCache(long singleMaxEntries, long listMaxWeight, Duration ttl,
+                         int concurrencyLevel) {
+        this(singleMaxEntries, listMaxWeight, ttl, concurrencyLevel, false, Duration.ZERO);
+    }
+
+    @Autowired
+    public ForecastCache(
+            @Value("${forecast.cache.single.max-entries:10000}") long singleMaxEntries,
+            @Value("${forecast.cache.list.max-weight:100000}") long listMaxWeight,
+            @Value("${forecast.cache.ttl:10m}") Duration ttl,
+            @Value("${forecast.cache.concurrency-level:16}") int concurrencyLevel,
+            @Value("${datasource.routing.enabled:false}") boolean replicaReads,
+            @Value("${datasource.routing.max-lag:5s}") Duration maxReplicaLag) {
+        this.singleForecastCache = new BoundedCache<>(
+                singleMaxEntries, ttl, concurrencyLevel, forecast -> 1,
+                (id, forecast) -> unindexSingle(id, forecast.getCityId()));
+        this.listForecastCache = new BoundedCache<>(
+                listMaxWeight, ttl, concurrencyLevel, cached -> cached.forecasts().size() + 1,
+                this::unindexList);
+        this.cityLocks = new ReentrantLock[Math.max(1, concurrencyLevel)];
+        for (int i = 0; i < cityLocks.length; i++) {
+            cityLocks[i] = new ReentrantLock();
         }
-    };
+        this.holdOffNanos = replicaReads ? maxReplicaLag.toNanos() : 0;
+    }
 
     public ForecastDto getForecastById(Integer id) {
         ForecastDto forecast = singleForecastCache.get(id);
@@ -41,61 +87,275 @@ public class ForecastCache {
     }
 
     public List<ForecastDto> getForecastsByCityId(Integer cityId) {
-        String key = cityName + cityId;
-        return listForecastCache.get(key);
+        return forecastsOf(listForecastCache.get(new ForecastCacheKey.ByCity(cityId)));
     }
 
     public List<ForecastDto> getForecastsByNameAndDate(String name, LocalDate date) {
-        String key = cityName + name + dateStr + date;
-        return listForecastCache.get(key);
+        return forecastsOf(listForecastCache.get(new ForecastCacheKey.ByNameAndDate(name, date)));
     }
 
     public void cacheSingleForecast(ForecastDto forecast) {
-        singleForecastCache.put(forecast.getId(), forecast);
+        Integer cityId = forecast.getCityId();
+        int[] stripes = cityId != null ? stripesOf(Set.of(cityId)) : new int[0];
+        lock(stripes);
+        try {
+            if (cityId != null && heldOff(Set.of(cityId))) {
+                log.debug("Skipped caching forecast {} of recently changed city",
+                        forecast.getId());
+                return;
+            }
+            ForecastDto previous = singleForecastCache.put(forecast.getId(), forecast);
+            if (previous != null && previous.getCityId() != null
+                    && !previous.getCityId().equals(cityId)) {
+                unindexSingle(forecast.getId(), previous.getCityId());
+            }
+            if (cityId != null) {
+                addToIndex(forecastIdsByCity, cityId, forecast.getId());
+            }
+        } finally {
+            unlock(stripes);
+        }
         log.debug("Cached single forecast {}", forecast.getId());
     }
 
     public void cacheForecastsByCityId(Integer cityId, List<ForecastDto> forecasts) {
-        String key = cityName + cityId;
-        listForecastCache.put(key, forecasts);
+        putList(new ForecastCacheKey.ByCity(cityId),
+                new CachedList(forecasts, Set.of(cityId), null));
         log.debug("Cached {} forecasts for specified city", forecasts.size());
     }
 
-    public void cacheForecastsByNameAndDate(
-            String name, LocalDate date, List<ForecastDto> forecasts) {
-        String key = cityName + name + dateStr + date;
-        listForecastCache.put(key, forecasts);
+    public void cacheForecastsByNameAndDate(String name, LocalDate date,
+                                            Collection<Integer> cityIds,
+                                            List<ForecastDto> forecasts) {
+        if (cityIds.isEmpty()) {
+            log.debug("Skipped caching forecasts for unknown city on specified date");
+            return;
+        }
+        putList(new ForecastCacheKey.ByNameAndDate(name, date),
+                new CachedList(forecasts, Set.copyOf(cityIds), date));
         log.debug("Cached {} forecasts for city on specified date", forecasts.size());
     }
 
     public void evictForecastsByCity(Integer cityId) {
-        listForecastCache.keySet().removeIf(key -> key.startsWith(cityName + cityId)
-                || key.contains(":" + cityName + cityId + ":"));
+        afterCommit(() -> removeCity(cityId));
+    }
 
-        singleForecastCache.values().removeIf(f -> f.getCityId().equals(cityId));
+    public void evictSingleForecast(Integer forecastId) {
+        afterCommit(() -> removeSingle(forecastId));
+    }
+
+    public void evictForecastsByCityAndDate(Integer cityId, LocalDate date) {
+        afterCommit(() -> removeCityAndDate(cityId, date));
+    }
+
+    private void removeCity(Integer cityId) {
+        int[] stripes = stripesOf(Set.of(cityId));
+        lock(stripes);
+        try {
+            holdOff(cityId);
+            Set<ForecastCacheKey> listKeys = listKeysByCity.remove(cityId);
+            if (listKeys != null) {
+                listKeys.forEach(this::removeList);
+            }
+
+            Set<Integer> forecastIds = forecastIdsByCity.remove(cityId);
+            if (forecastIds != null) {
+                forecastIds.forEach(singleForecastCache::remove);
+            }
+        } finally {
+            unlock(stripes);
+        }
 
         log.debug("Evicted all cache for city {}", cityId);
     }
 
-    public void evictSingleForecast(Integer forecastId) {
-        singleForecastCache.remove(forecastId);
+    private void removeSingle(Integer forecastId) {
+        ForecastDto removed = singleForecastCache.remove(forecastId);
+        if (removed != null) {
+            unindexSingle(forecastId, removed.getCityId());
+        }
         log.debug("Evicted forecast {}", forecastId);
     }
 
-    public void evictForecastsByCityAndDate(Integer cityId, LocalDate date) {
-        String keyPrefix = cityName + cityId + dateStr + date;
-        listForecastCache.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    private void removeCityAndDate(Integer cityId, LocalDate date) {
+        int[] stripes = stripesOf(Set.of(cityId));
+        lock(stripes);
+        try {
+            holdOff(cityId);
+            Set<ForecastCacheKey> listKeys =
+                    listKeysByCityAndDate.remove(new CityDate(cityId, date));
+            if (listKeys != null) {
+                listKeys.forEach(this::removeList);
+            }
+        } finally {
+            unlock(stripes);
+        }
         log.debug("Evicted cache for specified city and date");
     }
 
     public List<ForecastDto> getForecastsByName(String name, String country) {
-        String key = cityName + name + "country:" + country;
-        return listForecastCache.get(key);
+        return forecastsOf(listForecastCache.get(new ForecastCacheKey.ByName(name, country)));
     }
 
-    public void cacheForecastsByName(String name, String country, List<ForecastDto> forecasts) {
-        String key = cityName + name + "country:" + country;
-        listForecastCache.put(key, forecasts);
+    public void cacheForecastsByName(String name, String country,
+                                     Collection<Integer> cityIds,
+                                     List<ForecastDto> forecasts) {
+        if (cityIds.isEmpty()) {
+            log.debug("Skipped caching forecasts for unknown city");
+            return;
+        }
+        putList(new ForecastCacheKey.ByName(name, country),
+                new CachedList(forecasts, Set.copyOf(cityIds), null));
         log.debug("Cached {} forecasts for city", forecasts.size());
     }
-}
\ No newline at end of file
+
+    public CacheStats getSingleForecastStats() {
+        return singleForecastCache.stats();
+    }
+
+    public CacheStats getListForecastStats() {
+        return listForecastCache.stats();
+    }
+
+    private void putList(ForecastCacheKey key, CachedList cached) {
+        int[] stripes = stripesOf(cached.cityIds());
+        lock(stripes);
+        try {
+            if (heldOff(cached.cityIds())) {
+                log.debug("Skipped caching forecasts of recently changed city");
+                return;
+            }
+            // Слишком большой список кэш не сохранит: индексировать нечего,
+            // а прежнее значение ключа уже устарело
+            if (!listForecastCache.fits(cached)) {
+                removeList(key);
+                log.debug("Skipped caching {} forecasts exceeding cache segment weight",
+                        cached.forecasts().size());
+                return;
+            }
+            CachedList previous = listForecastCache.put(key, cached);
+            if (previous != null && !previous.sameIndexAs(cached)) {
+                unindexList(key, previous);
+            }
+            for (Integer cityId : cached.cityIds()) {
+                addToIndex(listKeysByCity, cityId, key);
+                if (cached.date() != null) {
+                    addToIndex(listKeysByCityAndDate, new CityDate(cityId, cached.date()), key);
+                }
+            }
+        } finally {
+            unlock(stripes);
+        }
+    }
+
+    private void holdOff(Integer cityId) {
+        if (holdOffNanos > 0) {
+            holdOffUntil.put(cityId, System.nanoTime() + holdOffNanos);
+        }
+    }
+
+    private boolean heldOff(Collection<Integer> cityIds) {
+        if (holdOffUntil.isEmpty()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        for (Integer cityId : cityIds) {
+            Long until = holdOffUntil.get(cityId);
+            if (until == null) {
+                continue;
+            }
+            if (until - now > 0) {
+                return true;
+            }
+            holdOffUntil.remove(cityId, until);
+        }
+        return false;
+    }
+
+    // Номера блокировок по возрастанию: несколько городов всегда захватываются в одном порядке
+    private int[] stripesOf(Collection<Integer> cityIds) {
+        return cityIds.stream()
+                .mapToInt(cityId -> Math.floorMod(cityId.hashCode(), cityLocks.length))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private void lock(int[] stripes) {
+        for (int stripe : stripes) {
+            cityLocks[stripe].lock();
+        }
+    }
+
+    private void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            cityLocks[stripes[i]].unlock();
+        }
+    }
+
+    private void removeList(ForecastCacheKey key) {
+        CachedList removed = listForecastCache.remove(key);
+        if (removed != null) {
+            unindexList(key, removed);
+        }
+    }
+
+    private void unindexSingle(Integer forecastId, Integer cityId) {
+        if (cityId != null) {
+            removeFromIndex(forecastIdsByCity, cityId, forecastId);
+        }
+    }
+
+    private void unindexList(ForecastCacheKey key, CachedList cached) {
+        for (Integer cityId : cached.cityIds()) {
+            removeFromIndex(listKeysByCity, cityId, key);
+            if (cached.date() != null) {
+                removeFromIndex(listKeysByCityAndDate, new CityDate(cityId, cached.date()), key);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+
+    private static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> result = values != null ? values : ConcurrentHashMap.newKeySet();
+            result.add(value);
+            return result;
+        });
+    }
+
+    private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private static List<ForecastDto> forecastsOf(CachedList cached) {
+        return cached != null ? cached.forecasts() : null;
+    }
+
+    private record CityDate(Integer cityId, LocalDate date) {
+    }
+
+    private record CachedList(List<ForecastDto> forecasts, Set<Integer> cityIds,
+                              LocalDate date) {
+
+        boolean sameIndexAs(CachedList other) {
+            return cityIds.equals(other.cityIds) && Objects.equals(date, other.date);
+        }
+    }
+}
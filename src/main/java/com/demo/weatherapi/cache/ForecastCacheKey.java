@@ -0,0 +1,15 @@
+package com.demo.weatherapi.cache;
+
+import java.time.LocalDate;
+
+sealed interface ForecastCacheKey {
+
+    record ByCity(int cityId) implements ForecastCacheKey {
+    }
+
+    record ByName(String name, String country) implements ForecastCacheKey {
+    }
+
+    record ByNameAndDate(String name, LocalDate date) implements ForecastCacheKey {
+    }
+}
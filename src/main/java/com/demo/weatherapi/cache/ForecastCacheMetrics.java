@@ -0,0 +1,74 @@
+package com.demo.weatherapi.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import org.springframework.stereotype.Component;
+
+/**
+ * Публикует статистику ForecastCache в Micrometer по соглашениям cache.*:
+ * обращения с результатом hit/miss, вытеснения, число записей и вес
+ * для каждой области кэша (single и list).
+ */
+@Component
+public class ForecastCacheMetrics implements MeterBinder {
+
+    static final String REGION_SINGLE = "forecast.single";
+    static final String REGION_LIST = "forecast.list";
+
+    private final ForecastCache forecastCache;
+
+    public ForecastCacheMetrics(ForecastCache forecastCache) {
+        this.forecastCache = forecastCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindRegion(registry, REGION_SINGLE, forecastCache::getSingleForecastStats);
+        bindRegion(registry, REGION_LIST, forecastCache::getListForecastStats);
+    }
+
+    private void bindRegion(MeterRegistry registry, String region, Supplier<CacheStats> stats) {
+        Tags tags = Tags.of("cache", region);
+
+        counter(registry, "cache.gets", tags.and("result", "hit"), stats, CacheStats::hits,
+                "Число обращений, найденных в кэше");
+        counter(registry, "cache.gets", tags.and("result", "miss"), stats, CacheStats::misses,
+                "Число обращений, не найденных в кэше");
+        counter(registry, "cache.evictions", tags, stats, CacheStats::evictions,
+                "Число записей, вытесненных по размеру или TTL");
+
+        gauge(registry, "cache.size", tags, stats, CacheStats::size,
+                "Число записей в кэше");
+        gauge(registry, "cache.weight", tags, stats, CacheStats::weight,
+                "Суммарный вес записей в кэше");
+    }
+
+    private void counter(MeterRegistry registry, String name, Tags tags,
+                         Supplier<CacheStats> stats, ToLongFunction<CacheStats> value,
+                         String description) {
+        FunctionCounter.builder(name, stats, toDouble(value))
+                .tags(tags)
+                .description(description)
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, Tags tags,
+                       Supplier<CacheStats> stats, ToLongFunction<CacheStats> value,
+                       String description) {
+        Gauge.builder(name, stats, toDouble(value))
+                .tags(tags)
+                .description(description)
+                .register(registry);
+    }
+
+    private static ToDoubleFunction<Supplier<CacheStats>> toDouble(
+            ToLongFunction<CacheStats> value) {
+        return stats -> value.applyAsLong(stats.get());
+    }
+}
@@ -0,0 +1,94 @@
+package com.demo.weatherapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Разделение чтения и записи: транзакции readOnly = true читают с реплик
+ * (datasource.routing.replica-urls), остальные работают с основной БД
+ * из spring.datasource.*. Включается свойством datasource.routing.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primaryDataSource,
+            Environment environment,
+            @Value("${datasource.routing.replica-urls:}") List<String> replicaUrls,
+            @Value("${datasource.routing.replica-pool-size:10}") int poolSize,
+            @Value("${datasource.routing.max-lag:5s}") Duration maxLag,
+            @Value("${datasource.routing.lag-query:}") String lagQuery) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            // Таймауты и проверки соединений - те же spring.datasource.hikari.*,
+            // что и у основного пула; имя, размер и readOnly задаются ниже
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        if (replicas.isEmpty()) {
+            logger.warn("Read/write routing is enabled but no replicas are configured");
+        }
+
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primaryDataSource,
+                replicas, maxLag,
+                lagQuery.isBlank() ? ReplicaRoutingDataSource.POSTGRES_LAG_QUERY : lagQuery);
+        // Отстающие реплики не должны получить запросы до первой плановой проверки
+        dataSource.checkReplicas();
+        logger.info("Read-only transactions are routed to {} of {} replicas",
+                dataSource.availableReplicas(), replicas.size());
+        return dataSource;
+    }
+
+    /**
+     * Соединение берётся только при первом запросе, когда транзакция уже
+     * отметила его readOnly: такие соединения выдаёт пул реплик, остальные -
+     * основная БД.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
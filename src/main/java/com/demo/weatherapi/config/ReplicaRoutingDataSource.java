@@ -0,0 +1,140 @@
+package com.demo.weatherapi.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Источник соединений для read-only транзакций. Реплики выбираются по кругу,
+ * недоступные и отстающие от основной БД больше maxLag пропускаются; если
+ * подходящих реплик нет, соединение выдаёт основная БД. Состояние реплик
+ * обновляет checkReplicas() по расписанию, а реплика, не выдавшая
+ * соединение, исключается сразу до следующей успешной проверки.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Если реплика применила всё полученное, она не отстаёт, даже когда
+    // на основной БД давно не было записей
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())"
+            + " * 1000, 0) END";
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = size > 0 ? Math.floorMod(next.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy || replica.lagMillis > maxLagMillis) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        logger.debug("No replica available, routing read-only connection to primary");
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException(
+                "Replica connections use the credentials of the replica pools");
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+                try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                    replica.markUp(rs.next() ? rs.getLong(1) : 0, maxLagMillis);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    public int availableReplicas() {
+        int available = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy && replica.lagMillis <= maxLagMillis) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUp(long lagMillis, long maxLagMillis) {
+            if (!healthy) {
+                logger.info("Replica {} is available again", name);
+            }
+            if (lagMillis > maxLagMillis && this.lagMillis <= maxLagMillis) {
+                logger.warn("Replica {} lags {} ms behind primary, reading from primary",
+                        name, lagMillis);
+            }
+            this.lagMillis = lagMillis;
+            healthy = true;
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy) {
+                logger.warn("Replica {} is unavailable: {}", name, e.getMessage());
+            }
+            healthy = false;
+        }
+    }
+}
@@ -23,6 +23,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 "/swagger-ui/**",
                 "/swagger-resources/**",
                 "/webjars/**",
+                "/actuator/**",
                 "/error"
             );
     }
@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -49,11 +50,14 @@ public class CityController {
     }
 
     @Operation(summary = "Получить список всех городов",
-            description = "Возвращает список всех городов из базы данных")
+            description = "Возвращает список всех городов с числом прогнозов и датой "
+                    + "последнего из них; сами прогнозы - только при forecasts=true")
     @ApiResponse(responseCode = "200", description = "Список городов успешно получен")
     @GetMapping("/all")
-    public ResponseEntity<List<CityDto>> getAll() {
-        List<CityDto> cities = cityService.getAll();
+    public ResponseEntity<List<CityDto>> getAll(
+            @Parameter(description = "Включить в ответ прогнозы каждого города")
+            @RequestParam(defaultValue = "false") boolean forecasts) {
+        List<CityDto> cities = cityService.getAll(forecasts);
         return ResponseEntity.ok(cities);
     }
 
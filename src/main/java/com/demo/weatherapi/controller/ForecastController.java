@@ -2,8 +2,16 @@ package com.demo.weatherapi.controller;
 
 import com.demo.weatherapi.dto.ForecastBulkRequest;
 import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastImportResult;
+import com.demo.weatherapi.dto.ForecastIngestStatus;
+import com.demo.weatherapi.dto.ForecastUpsertResult;
 import com.demo.weatherapi.exception.ResourceNotFoundException;
+import com.demo.weatherapi.service.ForecastExportService;
+import com.demo.weatherapi.service.ForecastImportFormat;
+import com.demo.weatherapi.service.ForecastImportService;
+import com.demo.weatherapi.service.ForecastIngestService;
 import com.demo.weatherapi.service.ForecastService;
+import com.demo.weatherapi.service.ForecastUpsertService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,11 +20,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -27,20 +39,37 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/forecast")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000",
+        exposedHeaders = ForecastController.NEXT_AFTER_ID_HEADER)
 @Tag(name = "Forecast Controller", description = "Операции с прогнозами погоды")
 public class ForecastController {
 
+    static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+
     private final ForecastService forecastService;
+    private final ForecastExportService forecastExportService;
+    private final ForecastImportService forecastImportService;
+    private final ForecastIngestService forecastIngestService;
+    private final ForecastUpsertService forecastUpsertService;
 
-    public ForecastController(ForecastService forecastService) {
+    public ForecastController(ForecastService forecastService,
+                              ForecastExportService forecastExportService,
+                              ForecastImportService forecastImportService,
+                              ForecastIngestService forecastIngestService,
+                              ForecastUpsertService forecastUpsertService) {
         this.forecastService = forecastService;
+        this.forecastExportService = forecastExportService;
+        this.forecastImportService = forecastImportService;
+        this.forecastIngestService = forecastIngestService;
+        this.forecastUpsertService = forecastUpsertService;
     }
 
     @Operation(
@@ -59,19 +88,47 @@ public class ForecastController {
     }
 
     @Operation(
-            summary = "Получить все прогнозы",
+            summary = "Получить прогнозы постранично",
+            description = "Курсорная пагинация по ID: следующая страница запрашивается "
+                    + "с afterId из заголовка " + NEXT_AFTER_ID_HEADER,
             responses = {
                 @ApiResponse(responseCode = "200", description = "Список прогнозов",
                         content = @Content(schema = @Schema(implementation = ForecastDto.class))),
-                @ApiResponse(responseCode = "204", description = "Прогнозы отсутствуют")
+                @ApiResponse(responseCode = "204", description = "Прогнозы отсутствуют"),
+                @ApiResponse(responseCode = "400", description = "Некорректный размер страницы")
             }
     )
     @GetMapping("/all")
-    public ResponseEntity<List<ForecastDto>> readAll() {
-        List<ForecastDto> forecasts = forecastService.readAll();
-        return forecasts.isEmpty()
-                ? ResponseEntity.noContent().build()
-                : ResponseEntity.ok(forecasts);
+    public ResponseEntity<List<ForecastDto>> readAll(
+            @Parameter(description = "ID, после которого начинается страница")
+            @RequestParam(defaultValue = "0") int afterId,
+            @Parameter(description = "Размер страницы (не более 1000)")
+            @RequestParam(defaultValue = "100") int limit) {
+        List<ForecastDto> forecasts = forecastService.readPage(afterId, limit);
+        if (forecasts.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (forecasts.size() == limit) {
+            response.header(NEXT_AFTER_ID_HEADER,
+                    String.valueOf(forecasts.get(forecasts.size() - 1).getId()));
+        }
+        return response.body(forecasts);
+    }
+
+    @Operation(
+            summary = "Выгрузить все прогнозы",
+            description = "Отдаёт всю таблицу прогнозов потоковым JSON-массивом",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Массив прогнозов",
+                        content = @Content(schema = @Schema(implementation = ForecastDto.class)))
+            }
+    )
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        StreamingResponseBody body = forecastExportService::exportAll;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @Operation(
@@ -185,7 +242,7 @@ public class ForecastController {
 
     @Operation(
             summary = "Массовое создание прогнозов",
-            description = "Создаёт несколько прогнозов за один запрос с использованием Stream API",
+            description = "Создаёт несколько прогнозов одной транзакцией с пакетной вставкой",
             responses = {
                 @ApiResponse(responseCode = "201", description = "Прогнозы успешно созданы",
                     content = @Content(schema = @Schema(implementation = ForecastDto.class))),
@@ -195,16 +252,14 @@ public class ForecastController {
     @PostMapping("/bulk")
     public ResponseEntity<List<ForecastDto>> createBulk(
             @Valid @RequestBody ForecastBulkRequest request) {
-        List<ForecastDto> createdForecasts = request.getForecasts().stream()
-                .map(forecastService::create)
-                .collect(Collectors.toList());
+        List<ForecastDto> createdForecasts = forecastService.createBulk(request.getForecasts());
         return ResponseEntity.status(HttpStatus.CREATED).body(createdForecasts);
     }
 
     @Operation(
             summary = "Массовое обновление прогнозов",
             description =
-                    "Обновляет несколько прогнозов за один запрос с использованием Stream API",
+                    "Обновляет несколько прогнозов одной транзакцией с пакетными UPDATE",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Прогнозы успешно обновлены",
                     content = @Content(schema = @Schema(implementation = ForecastDto.class))),
@@ -216,15 +271,46 @@ public class ForecastController {
     @PutMapping("/bulk")
     public ResponseEntity<List<ForecastDto>> updateBulk(
             @Valid @RequestBody List<ForecastDto> forecastDtos) {
-        List<ForecastDto> updatedForecasts = forecastDtos.stream()
-                .map(dto -> forecastService.update(dto, dto.getId()))
-                .collect(Collectors.toList());
+        List<ForecastDto> updatedForecasts = forecastService.updateBulk(forecastDtos);
         return ResponseEntity.ok(updatedForecasts);
     }
 
+    @Operation(
+            summary = "Создать или обновить прогноз",
+            description = "Создаёт прогноз на город и дату или перезаписывает существующий",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Число созданных и обновлённых",
+                    content = @Content(schema =
+                        @Schema(implementation = ForecastUpsertResult.class))),
+                @ApiResponse(responseCode = "400", description = "Ошибка валидации")
+            }
+    )
+    @PutMapping("/upsert")
+    public ResponseEntity<ForecastUpsertResult> upsert(
+            @Valid @RequestBody ForecastDto forecastDto) {
+        return ResponseEntity.ok(forecastUpsertService.upsert(List.of(forecastDto)));
+    }
+
+    @Operation(
+            summary = "Массовое создание или обновление прогнозов",
+            description = "Пишет прогнозы пачками через INSERT ... ON CONFLICT (city_id, date) "
+                    + "DO UPDATE одной транзакцией",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Число созданных и обновлённых",
+                    content = @Content(schema =
+                        @Schema(implementation = ForecastUpsertResult.class))),
+                @ApiResponse(responseCode = "400", description = "Ошибка валидации")
+            }
+    )
+    @PutMapping("/upsert/bulk")
+    public ResponseEntity<ForecastUpsertResult> upsertBulk(
+            @Valid @RequestBody List<ForecastDto> forecastDtos) {
+        return ResponseEntity.ok(forecastUpsertService.upsert(forecastDtos));
+    }
+
     @Operation(
             summary = "Массовое удаление прогнозов",
-            description = "Удаляет несколько прогнозов по их ID",
+            description = "Удаляет несколько прогнозов по их ID одним запросом",
             responses = {
                 @ApiResponse(responseCode = "204", description = "Прогнозы успешно удалены"),
                 @ApiResponse(responseCode = "404", description =
@@ -234,27 +320,92 @@ public class ForecastController {
     @DeleteMapping("/bulk")
     public ResponseEntity<Void> deleteBulk(
             @RequestBody List<Integer> ids) {
-        ids.forEach(forecastService::delete);
+        forecastService.deleteBulk(ids);
         return ResponseEntity.noContent().build();
     }
 
     @Operation(
-            summary = "Фильтрация прогнозов с обработкой через Stream API",
-            description = "Возвращает отфильтрованные прогнозы с использованием Stream API",
+            summary = "Импорт прогнозов",
+            description = "Потоково загружает прогнозы из CSV (с заголовком по именам полей "
+                    + "прогноза) или NDJSON. Некорректные строки пропускаются и попадают в отчёт",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Отчёт об импорте",
+                    content = @Content(schema =
+                        @Schema(implementation = ForecastImportResult.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректный заголовок CSV")
+            }
+    )
+    @PostMapping(value = "/import", consumes = {
+        ForecastImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE
+    })
+    public ResponseEntity<ForecastImportResult> importForecasts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        ForecastImportFormat format = ForecastImportFormat.fromMediaType(contentType);
+        return ResponseEntity.ok(forecastImportService.importForecasts(body, format));
+    }
+
+    @Operation(
+            summary = "Асинхронная загрузка прогнозов",
+            description = "Проверяет прогнозы и ставит их в очередь на запись. "
+                    + "Состояние пакета доступно по batchId",
+            responses = {
+                @ApiResponse(responseCode = "202", description = "Пакет принят в очередь",
+                    content = @Content(schema =
+                        @Schema(implementation = ForecastIngestStatus.class))),
+                @ApiResponse(responseCode = "400", description = "Ошибка валидации"),
+                @ApiResponse(responseCode = "429", description =
+                        "Очередь переполнена, повторить после Retry-After секунд")
+            }
+    )
+    @PostMapping("/ingest")
+    public ResponseEntity<ForecastIngestStatus> ingest(
+            @Valid @RequestBody ForecastBulkRequest request) {
+        ForecastIngestStatus status = forecastIngestService.submit(request.getForecasts());
+        return ResponseEntity.accepted()
+                .location(URI.create("/forecast/ingest/" + status.getBatchId()))
+                .body(status);
+    }
+
+    @Operation(
+            summary = "Состояние асинхронной загрузки",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Состояние пакета",
+                    content = @Content(schema =
+                        @Schema(implementation = ForecastIngestStatus.class))),
+                @ApiResponse(responseCode = "404", description = "Пакет не найден")
+            }
+    )
+    @GetMapping("/ingest/{batchId}")
+    public ResponseEntity<ForecastIngestStatus> getIngestStatus(
+            @Parameter(description = "ID пакета загрузки") @PathVariable String batchId) {
+        return ResponseEntity.ok(forecastIngestService.getStatus(batchId));
+    }
+
+    @Operation(
+            summary = "Фильтрация прогнозов",
+            description = "Возвращает страницу прогнозов, отфильтрованных на стороне базы данных",
             responses = {
                 @ApiResponse(responseCode = "200", description =
                     "Список отфильтрованных прогнозов",
-                    content = @Content(schema = @Schema(implementation = ForecastDto.class)))
+                    content = @Content(schema = @Schema(implementation = ForecastDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректные параметры страницы")
             }
     )
     @GetMapping("/filter/stream")
     public ResponseEntity<List<ForecastDto>> filterForecasts(
             @RequestParam(required = false) String cityName,
-            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) Double minTemp,
-            @RequestParam(required = false) Double maxTemp) {
+            @RequestParam(required = false) Double maxTemp,
+            @Parameter(description = "Номер страницы (с 0)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы (не более 1000)")
+            @RequestParam(defaultValue = "100") int size) {
 
-        List<ForecastDto> result = forecastService.findByFilters(cityName, date, minTemp, maxTemp);
+        List<ForecastDto> result =
+                forecastService.findByFilters(cityName, date, minTemp, maxTemp, page, size);
         return result.isEmpty()
                 ? ResponseEntity.noContent().build()
                 : ResponseEntity.ok(result);
@@ -1,17 +1,19 @@
 package com.demo.weatherapi.controller;
 
+import com.demo.weatherapi.service.LogFileSender;
 import com.demo.weatherapi.service.LogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Pattern;
 import java.io.IOException;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,9 +27,11 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin(origins = "http://localhost:3000")
 public class LogController {
     private final LogService logService;
+    private final LogFileSender logFileSender;
 
-    public LogController(LogService logService) {
+    public LogController(LogService logService, LogFileSender logFileSender) {
         this.logService = logService;
+        this.logFileSender = logFileSender;
     }
 
     @Operation(summary = "Создать лог-файл по дате (асинхронно)")
@@ -52,10 +56,15 @@ public class LogController {
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("taskId", taskId);
         response.put("status", task.getStatus());
+        if (LogService.STATUS_NOT_FOUND.equals(task.getStatus())) {
+            return ResponseEntity.ok(response);
+        }
         response.put("createdAt", new Date(task.getCreationTime()));
 
         if (LogService.STATUS_PROCESSING.equals(task.getStatus())) {
             response.put("message", "File is being processed...");
+            response.put("bytesScanned", task.getBytesScanned());
+            response.put("totalBytes", task.getTotalBytes());
         } else if (task.getMessage() != null) {
             response.put("message", task.getMessage());
         }
@@ -63,14 +72,25 @@ public class LogController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Получить лог-файл по ID задачи")
+    @Operation(summary = "Список задач с количеством по статусам")
+    @GetMapping("/tasks")
+    public ResponseEntity<Map<String, Object>> listTasks() {
+        return ResponseEntity.ok(logService.listTasks());
+    }
+
+    @Operation(summary = "Отменить задачу",
+            description = "Выполняющаяся задача прерывается, завершённая удаляется")
+    @DeleteMapping("/{taskId}")
+    public ResponseEntity<Void> cancelTask(@PathVariable String taskId) {
+        logService.cancelTask(taskId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Получить лог-файл по ID задачи",
+            description = "Поддерживает Range/If-Range для докачки, ETag и gzip")
     @GetMapping("/file/{taskId}")
-    public ResponseEntity<Resource> getLogFile(@PathVariable String taskId) {
-        try {
-            return logService.getLogFileStream(taskId);
-        } catch (IOException e) {
-            return ResponseEntity.status(500)
-                    .body(new ByteArrayResource(("Error: " + e.getMessage()).getBytes()));
-        }
+    public void getLogFile(@PathVariable String taskId, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        logFileSender.send(logService.getLogFilePath(taskId), request, response);
     }
-}
\ No newline at end of file
+}
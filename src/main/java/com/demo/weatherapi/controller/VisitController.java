@@ -1,13 +1,15 @@
 package com.demo.weatherapi.controller;
 
-import com.demo.weatherapi.service.VisitCounterService;
+import com.demo.weatherapi.dto.VisitStats;
+import com.demo.weatherapi.service.VisitStatsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.Map;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -16,16 +18,20 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "VisitController", description = "Контроллер для получения статистики посещений")
 public class VisitController {
 
-    private final VisitCounterService visitCounterService;
+    private final VisitStatsService visitStatsService;
 
-    public VisitController(VisitCounterService visitCounterService) {
-        this.visitCounterService = visitCounterService;
+    public VisitController(VisitStatsService visitStatsService) {
+        this.visitStatsService = visitStatsService;
     }
 
     @Operation(summary = "Получить статистику посещений",
-            description = "Возвращает количество посещений для каждого URL")
+            description = "Возвращает общее число посещений с учётом сохранённых в БД, "
+                    + "частоту по скользящим окнам этого экземпляра (1m, 5m, 1h, 24h) "
+                    + "и самые посещаемые маршруты")
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Integer>> getVisitCount() {
-        return ResponseEntity.ok(visitCounterService.getAllVisits());
+    public ResponseEntity<VisitStats> getVisitStats(
+            @Parameter(description = "Сколько самых посещаемых маршрутов вернуть", example = "10")
+            @RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(visitStatsService.getStats(top));
     }
 }
\ No newline at end of file
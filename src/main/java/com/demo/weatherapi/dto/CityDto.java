@@ -2,6 +2,7 @@ package com.demo.weatherapi.dto;
 
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDate;
 import java.util.List;
 import lombok.Data;
 import lombok.Getter;
@@ -34,6 +35,22 @@ public class CityDto {
     )
     private String name;
 
+    @Schema(
+            description = "Количество прогнозов города (в списке городов)",
+            example = "14",
+            accessMode = Schema.AccessMode.READ_ONLY,
+            nullable = true
+    )
+    private Long forecastCount;
+
+    @Schema(
+            description = "Дата самого позднего прогноза (в списке городов)",
+            example = "2025-05-11",
+            accessMode = Schema.AccessMode.READ_ONLY,
+            nullable = true
+    )
+    private LocalDate latestForecastDate;
+
     @ArraySchema(
             schema = @Schema(implementation = ForecastDto.class),
             arraySchema = @Schema(
@@ -79,6 +79,23 @@ public class ForecastDto {
         this.windSpeed = windSpeed;
     }
 
+    /**
+     * Для JPQL-проекций (ForecastRepository.DTO_SELECT): строки читаются сразу
+     * в DTO без создания сущностей Forecast и City.
+     */
+    public ForecastDto(Integer id, Integer cityId, LocalDate date, Double temperatureMin,
+                       Double temperatureMax, String condition, Double humidity,
+                       Double windSpeed) {
+        this.id = id;
+        this.cityId = cityId;
+        this.date = date;
+        this.temperatureMin = temperatureMin;
+        this.temperatureMax = temperatureMax;
+        this.condition = condition;
+        this.humidity = humidity;
+        this.windSpeed = windSpeed;
+    }
+
     public ForecastDto() {
 
     }
@@ -0,0 +1,32 @@
+package com.demo.weatherapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+@Schema(description = "Результат импорта прогнозов")
+public class ForecastImportResult {
+
+    @Schema(description = "Количество загруженных строк", example = "99950")
+    private final long imported;
+
+    @Schema(description = "Количество отклонённых строк", example = "50")
+    private final long rejected;
+
+    @Schema(description = "Первые отклонённые строки с причиной отказа")
+    private final List<RejectedRow> rejectedRows;
+
+    public ForecastImportResult(long imported, long rejected, List<RejectedRow> rejectedRows) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejectedRows = rejectedRows;
+    }
+
+    @Schema(description = "Отклонённая строка импорта")
+    public record RejectedRow(
+            @Schema(description = "Номер строки во входных данных", example = "42") long line,
+            @Schema(description = "Причина отказа",
+                    example = "Город с ID 7 не найден") String reason) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.demo.weatherapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Date;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+@Schema(description = "Состояние пакета асинхронной загрузки прогнозов")
+public class ForecastIngestStatus {
+
+    @Schema(description = "Идентификатор пакета",
+            example = "3f1c2a9e-7d4b-4f6a-9a43-2b8c1d0e5f71")
+    private final String batchId;
+
+    @Schema(description = "Статус пакета", example = "PROCESSING")
+    private final String status;
+
+    @Schema(description = "Количество прогнозов в пакете", example = "500")
+    private final int total;
+
+    @Schema(description = "Количество записанных прогнозов", example = "480")
+    private final int written;
+
+    @Schema(description = "Количество прогнозов, которые не удалось записать", example = "20")
+    private final int failed;
+
+    @Schema(description = "Время постановки пакета в очередь")
+    private final Date createdAt;
+
+    @Schema(description = "Первые ошибки записи")
+    private final List<String> errors;
+
+    public ForecastIngestStatus(String batchId, String status, int total, int written,
+                                int failed, Date createdAt, List<String> errors) {
+        this.batchId = batchId;
+        this.status = status;
+        this.total = total;
+        this.written = written;
+        this.failed = failed;
+        this.createdAt = createdAt;
+        this.errors = errors;
+    }
+}
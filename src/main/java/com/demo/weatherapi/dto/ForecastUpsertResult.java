@@ -0,0 +1,20 @@
+package com.demo.weatherapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+@Getter
+@Schema(description = "Результат создания или обновления прогнозов")
+public class ForecastUpsertResult {
+
+    @Schema(description = "Количество созданных прогнозов", example = "120")
+    private final int created;
+
+    @Schema(description = "Количество обновлённых прогнозов", example = "30")
+    private final int updated;
+
+    public ForecastUpsertResult(int created, int updated) {
+        this.created = created;
+        this.updated = updated;
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.weatherapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+@Schema(description = "Статистика посещений")
+public class VisitStats {
+
+    @Schema(description = "Общее число посещений с момента запуска", example = "125000")
+    private final long totalVisits;
+
+    @Schema(description = "Число отслеживаемых маршрутов", example = "42")
+    private final int trackedRoutes;
+
+    @Schema(description = "Посещения и средняя частота по скользящим окнам")
+    private final List<WindowRate> windows;
+
+    @Schema(description = "Самые посещаемые маршруты")
+    private final List<RouteVisits> topRoutes;
+
+    public VisitStats(long totalVisits, int trackedRoutes, List<WindowRate> windows,
+                      List<RouteVisits> topRoutes) {
+        this.totalVisits = totalVisits;
+        this.trackedRoutes = trackedRoutes;
+        this.windows = windows;
+        this.topRoutes = topRoutes;
+    }
+
+    @Schema(description = "Посещения за скользящее окно")
+    public record WindowRate(
+            @Schema(description = "Длина окна", example = "1h") String window,
+            @Schema(description = "Число посещений за окно", example = "3600") long visits,
+            @Schema(description = "Посещений в секунду", example = "1.0") double perSecond) {
+    }
+
+    @Schema(description = "Посещения маршрута")
+    public record RouteVisits(
+            @Schema(description = "Шаблон маршрута", example = "/forecast/{id}") String route,
+            @Schema(description = "Число посещений (верхняя оценка)", example = "1200") long visits,
+            @Schema(description = "Максимальная погрешность оценки: посещения, "
+                    + "унаследованные от вытесненного маршрута", example = "0") long error,
+            @Schema(description = "Посещений за последнюю минуту", example = "20") long lastMinute,
+            @Schema(description = "Посещений за последний час", example = "900") long lastHour) {
+    }
+}
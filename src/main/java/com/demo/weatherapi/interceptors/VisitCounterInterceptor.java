@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Component
 @RequiredArgsConstructor
@@ -28,8 +29,7 @@ public class VisitCounterInterceptor implements HandlerInterceptor {
                                 Exception ex) {
         String url = request.getRequestURI();
         if (!isTechnicalRequest(url)) {
-            String cleanUrl = normalizeUrl(url);
-            visitCounterService.incrementVisit(cleanUrl);
+            visitCounterService.incrementVisit(routeOf(request, url));
         }
     }
 
@@ -42,7 +42,11 @@ public class VisitCounterInterceptor implements HandlerInterceptor {
                 || url.startsWith("/actuator");
     }
 
-    private String normalizeUrl(String url) {
-        return url.split("\\?")[0];
+    // Шаблон маршрута (например /forecast/{id}) вместо конкретного URI: число
+    // ключей ограничено числом эндпоинтов, а сама строка шаблона берётся
+    // из маппинга и не создаётся заново на каждый запрос
+    private String routeOf(HttpServletRequest request, String url) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof String route ? route : url;
     }
 }
\ No newline at end of file
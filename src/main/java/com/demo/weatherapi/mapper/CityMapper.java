@@ -3,6 +3,7 @@ package com.demo.weatherapi.mapper;
 import com.demo.weatherapi.dto.CityDto;
 import com.demo.weatherapi.dto.ForecastDto;
 import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.repository.CitySummary;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
@@ -40,6 +41,16 @@ public class CityMapper {
         return dto;
     }
 
+    public CityDto toDto(CitySummary summary) {
+        CityDto dto = new CityDto();
+        dto.setId(summary.id());
+        dto.setCountry(summary.country());
+        dto.setName(summary.name());
+        dto.setForecastCount(summary.forecastCount());
+        dto.setLatestForecastDate(summary.latestForecastDate());
+        return dto;
+    }
+
     public City toEntity(CityDto dto) {
         if (dto == null) {
             return null;
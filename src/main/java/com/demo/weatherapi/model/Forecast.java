@@ -12,6 +12,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
@@ -25,15 +26,19 @@ import lombok.ToString;
 @Getter
 @Data
 @Entity
-@Table(name = "forecasts")
+@Table(name = "forecasts", uniqueConstraints = @UniqueConstraint(
+        name = Forecast.UNIQUE_CITY_DATE, columnNames = {"city_id", "date"}))
 @Schema(description = "Прогноз погоды на определённую дату в конкретном городе")
 @EqualsAndHashCode(of = {"id"})
 @ToString(exclude = {"city"})
 public class Forecast {
 
+    public static final String UNIQUE_CITY_DATE = "uq_forecasts_city_id_date";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forecastIdSeq")
-    @SequenceGenerator(name = "forecastIdSeq", sequenceName = "forecast_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "forecastIdSeq", sequenceName = "forecast_id_seq",
+            allocationSize = 50)
     @Schema(description = "Идентификатор прогноза", example = "42",
             accessMode = Schema.AccessMode.READ_ONLY)
     private Integer id;
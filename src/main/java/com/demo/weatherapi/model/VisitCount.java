@@ -0,0 +1,31 @@
+package com.demo.weatherapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "visit_counts")
+public class VisitCount {
+
+    @Id
+    @Column(name = "route", length = 2048)
+    private String route;
+
+    @Column(name = "visits", nullable = false)
+    private long visits;
+
+    public VisitCount() {
+        // конструктор по умолчанию (нужен для JPA)
+    }
+
+    public VisitCount(String route, long visits) {
+        this.route = route;
+        this.visits = visits;
+    }
+}
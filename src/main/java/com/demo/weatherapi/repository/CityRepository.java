@@ -1,10 +1,33 @@
 package com.demo.weatherapi.repository;
 
 import com.demo.weatherapi.model.City;
+import java.util.List;
+import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CityRepository extends JpaRepository<City, Integer> {
-    //магия
+
+    @Query("SELECT c.id FROM City c WHERE c.name = :name")
+    List<Integer> findIdsByName(@Param("name") String name);
+
+    @Query("SELECT c.id FROM City c WHERE c.name = :name AND c.country = :country")
+    List<Integer> findIdsByNameAndCountry(
+            @Param("name") String name, @Param("country") String country);
+
+    @Query("SELECT c.id FROM City c")
+    Set<Integer> findAllIds();
+
+    // Один агрегирующий запрос вместо загрузки коллекции прогнозов каждого города
+    @Query("SELECT new com.demo.weatherapi.repository.CitySummary("
+            + "c.id, c.country, c.name, COUNT(f.id), MAX(f.date)) "
+            + "FROM City c LEFT JOIN c.forecasts f "
+            + "GROUP BY c.id, c.country, c.name ORDER BY c.id")
+    List<CitySummary> findSummaries();
+
+    @Query("SELECT DISTINCT c FROM City c LEFT JOIN FETCH c.forecasts ORDER BY c.id")
+    List<City> findAllWithForecasts();
 }
@@ -0,0 +1,7 @@
+package com.demo.weatherapi.repository;
+
+import java.time.LocalDate;
+
+public record CitySummary(Integer id, String country, String name,
+                          Long forecastCount, LocalDate latestForecastDate) {
+}
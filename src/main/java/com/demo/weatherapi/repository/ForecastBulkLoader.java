@@ -0,0 +1,131 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Пишет уже проверенные прогнозы напрямую через JDBC, минуя контекст JPA.
+ * На PostgreSQL используется COPY FROM STDIN, на остальных базах
+ * (H2 в тестах) — пакетный INSERT.
+ */
+@Repository
+public class ForecastBulkLoader {
+
+    // Должен совпадать с allocationSize генератора в Forecast: один nextval
+    // резервирует блок из ID_BLOCK_SIZE идентификаторов (оптимизатор pooled-lo)
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String COLUMNS = "id, city_id, date, temperature_min, "
+            + "temperature_max, condition, humidity, wind_speed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ForecastBulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int load(List<ForecastDto> forecasts) {
+        if (forecasts.isEmpty()) {
+            return 0;
+        }
+        Integer loaded = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            assignIds(connection, forecasts, postgres);
+            return postgres
+                    ? copy(connection.unwrap(PGConnection.class), forecasts)
+                    : insert(connection, forecasts);
+        });
+        return loaded != null ? loaded : 0;
+    }
+
+    static void assignIds(Connection connection, List<ForecastDto> forecasts, boolean postgres)
+            throws SQLException {
+        int blocks = (forecasts.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Integer> blockStarts = new ArrayList<>(blocks);
+
+        if (postgres) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT nextval('forecast_id_seq') FROM generate_series(1, ?)")) {
+                statement.setInt(1, blocks);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        blockStarts.add(rs.getInt(1));
+                    }
+                }
+            }
+        } else {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT NEXT VALUE FOR forecast_id_seq")) {
+                for (int i = 0; i < blocks; i++) {
+                    try (ResultSet rs = statement.executeQuery()) {
+                        rs.next();
+                        blockStarts.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < forecasts.size(); i++) {
+            forecasts.get(i).setId(blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE);
+        }
+    }
+
+    private int copy(PGConnection connection, List<ForecastDto> forecasts) throws SQLException {
+        StringBuilder csv = new StringBuilder(forecasts.size() * 64);
+        for (ForecastDto forecast : forecasts) {
+            csv.append(forecast.getId()).append(',')
+                    .append(forecast.getCityId()).append(',')
+                    .append(forecast.getDate()).append(',')
+                    .append(forecast.getTemperatureMin()).append(',')
+                    .append(forecast.getTemperatureMax()).append(',')
+                    .append('"').append(forecast.getCondition().replace("\"", "\"\""))
+                    .append('"').append(',')
+                    .append(forecast.getHumidity()).append(',')
+                    .append(forecast.getWindSpeed()).append('\n');
+        }
+
+        try {
+            long copied = connection.getCopyAPI().copyIn(
+                    "COPY forecasts (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+            return (int) copied;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int insert(Connection connection, List<ForecastDto> forecasts) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO forecasts (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (ForecastDto forecast : forecasts) {
+                statement.setInt(1, forecast.getId());
+                statement.setInt(2, forecast.getCityId());
+                statement.setDate(3, Date.valueOf(forecast.getDate()));
+                statement.setDouble(4, forecast.getTemperatureMin());
+                statement.setDouble(5, forecast.getTemperatureMax());
+                statement.setString(6, forecast.getCondition());
+                statement.setDouble(7, forecast.getHumidity());
+                statement.setDouble(8, forecast.getWindSpeed());
+                statement.addBatch();
+            }
+            int inserted = 0;
+            for (int count : statement.executeBatch()) {
+                inserted += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : count;
+            }
+            return inserted;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.demo.weatherapi.repository;
+
+import java.time.LocalDate;
+
+public record ForecastKey(Integer cityId, LocalDate date) {
+}
@@ -1,27 +1,63 @@
 package com.demo.weatherapi.repository;
 
-import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.dto.ForecastDto;
 import com.demo.weatherapi.model.Forecast;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface ForecastRepository extends JpaRepository<Forecast, Integer> {
-    @Query("SELECT f FROM Forecast f WHERE f.city.name = :name AND f.date = :date")
-    List<Forecast> findForecastsByNameAndDate(
-            @Param("name") String name, @Param("date") LocalDate date);
+public interface ForecastRepository extends JpaRepository<Forecast, Integer>,
+        ForecastRepositoryCustom {
+
+    // Проекция для чтения: только колонки forecasts, city.id берётся из city_id
+    // без соединения с cities, сущности не создаются и не попадают в контекст
+    String DTO_SELECT = "SELECT new com.demo.weatherapi.dto.ForecastDto(f.id, f.city.id, "
+            + "f.date, f.temperatureMin, f.temperatureMax, f.condition, f.humidity, "
+            + "f.windSpeed) FROM Forecast f ";
+
+    @Query(DTO_SELECT + "WHERE f.id = :id")
+    Optional<ForecastDto> findDtoById(@Param("id") Integer id);
+
+    @Query(DTO_SELECT + "WHERE f.city.id = :cityId")
+    List<ForecastDto> findDtosByCityId(@Param("cityId") Integer cityId);
+
+    @Query(DTO_SELECT + "WHERE f.city.id IN :cityIds")
+    List<ForecastDto> findDtosByCityIds(@Param("cityIds") Collection<Integer> cityIds);
+
+    @Query(DTO_SELECT + "WHERE f.city.id IN :cityIds AND f.date = :date")
+    List<ForecastDto> findDtosByCityIdsAndDate(@Param("cityIds") Collection<Integer> cityIds,
+                                               @Param("date") LocalDate date);
+
+    @Query(DTO_SELECT + "WHERE f.id > :afterId ORDER BY f.id")
+    List<ForecastDto> findDtosAfterId(@Param("afterId") Integer afterId, Limit limit);
 
     @Query("SELECT f FROM Forecast f WHERE f.city.id = :cityId")
     List<Forecast> findByCityId(@Param("cityId") Integer cityId);
 
-    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END "
-            + "FROM Forecast f WHERE f.city = :city AND f.date = :date")
-    boolean existsByCityAndDate(@Param("city") City city,
-                                 @Param("date") LocalDate date);
+    @Query("SELECT new com.demo.weatherapi.repository.ForecastKey(f.city.id, f.date) "
+            + "FROM Forecast f WHERE f.city.id IN :cityIds AND f.date IN :dates")
+    List<ForecastKey> findKeysByCityIdsAndDates(@Param("cityIds") Collection<Integer> cityIds,
+                                                @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT DISTINCT f.city.id FROM Forecast f WHERE f.id IN :ids")
+    List<Integer> findCityIdsByIds(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM Forecast f WHERE f.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
 
-    @Query("SELECT f FROM Forecast f WHERE f.city.name = :name AND f.city.country = :country")
-    List<Forecast> findForecastsByName(
-            @Param("name") String name, @Param("country") String country);
-}
\ No newline at end of file
+    // Курсор на стороне БД: строки подтягиваются порциями, а не всей таблицей
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + "ORDER BY f.id")
+    Stream<ForecastDto> streamAllDtosOrderById();
+}
@@ -0,0 +1,13 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.model.Forecast;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ForecastRepositoryCustom {
+
+    List<Forecast> findByFilters(Specification<Forecast> filter, Pageable pageable);
+
+    List<Forecast> insertAll(List<Forecast> forecasts);
+}
@@ -0,0 +1,58 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.model.Forecast;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+public class ForecastRepositoryCustomImpl implements ForecastRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${forecast.bulk.batch-size:1000}")
+    private int batchSize;
+
+    // В отличие от findAll(spec, pageable) не выполняет COUNT(*) по всей таблице
+    @Override
+    public List<Forecast> findByFilters(Specification<Forecast> filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Forecast> query = cb.createQuery(Forecast.class);
+        Root<Forecast> root = query.from(Forecast.class);
+
+        Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    // Сбрасывает вставки пачками по batchSize (их группирует hibernate.jdbc.batch_size)
+    // и очищает контекст, чтобы он не разрастался на больших загрузках
+    @Override
+    public List<Forecast> insertAll(List<Forecast> forecasts) {
+        for (int i = 0; i < forecasts.size(); i++) {
+            entityManager.persist(forecasts.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return forecasts;
+    }
+}
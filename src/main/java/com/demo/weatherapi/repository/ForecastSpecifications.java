@@ -0,0 +1,50 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.model.Forecast;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ForecastSpecifications {
+
+    private ForecastSpecifications() {
+    }
+
+    public static Specification<Forecast> byFilters(
+            String cityName, LocalDate date, Double minTemp, Double maxTemp) {
+        List<Specification<Forecast>> specs = new ArrayList<>();
+        if (cityName != null) {
+            specs.add(cityNameEqualsIgnoreCase(cityName));
+        }
+        if (date != null) {
+            specs.add(hasDate(date));
+        }
+        if (minTemp != null) {
+            specs.add(temperatureMinAtLeast(minTemp));
+        }
+        if (maxTemp != null) {
+            specs.add(temperatureMaxAtMost(maxTemp));
+        }
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Forecast> cityNameEqualsIgnoreCase(String cityName) {
+        String lowerName = cityName.toLowerCase(Locale.ROOT);
+        return (root, query, cb) ->
+                cb.equal(cb.lower(root.get("city").get("name")), lowerName);
+    }
+
+    public static Specification<Forecast> hasDate(LocalDate date) {
+        return (root, query, cb) -> cb.equal(root.get("date"), date);
+    }
+
+    public static Specification<Forecast> temperatureMinAtLeast(Double minTemp) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("temperatureMin"), minTemp);
+    }
+
+    public static Specification<Forecast> temperatureMaxAtMost(Double maxTemp) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("temperatureMax"), maxTemp);
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastUpsertResult;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Создаёт или обновляет прогнозы по ключу (city_id, date) пачками по batchSize.
+ * На PostgreSQL - один INSERT ... ON CONFLICT на пачку, созданные строки
+ * отличаются по xmax = 0 в RETURNING. На остальных базах (H2 в тестах) -
+ * пакетный UPDATE и пакетный INSERT строк, которые UPDATE не затронул.
+ */
+@Repository
+public class ForecastUpsertWriter {
+
+    private static final String COLUMNS = "id, city_id, date, temperature_min, "
+            + "temperature_max, condition, humidity, wind_speed";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int PARAMETERS_PER_ROW = 8;
+    // Протокол PostgreSQL передаёт число параметров запроса в 16 битах со знаком
+    static final int MAX_POSTGRES_ROWS = Short.MAX_VALUE / PARAMETERS_PER_ROW;
+
+    private static final String POSTGRES_CONFLICT = " ON CONFLICT (city_id, date) DO UPDATE SET "
+            + "temperature_min = EXCLUDED.temperature_min, "
+            + "temperature_max = EXCLUDED.temperature_max, "
+            + "condition = EXCLUDED.condition, "
+            + "humidity = EXCLUDED.humidity, "
+            + "wind_speed = EXCLUDED.wind_speed "
+            + "RETURNING (xmax = 0)";
+
+    private static final String UPDATE = "UPDATE forecasts SET temperature_min = ?, "
+            + "temperature_max = ?, condition = ?, humidity = ?, wind_speed = ? "
+            + "WHERE city_id = ? AND date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ForecastUpsertWriter(JdbcTemplate jdbcTemplate,
+                                @Value("${forecast.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ключи (city_id, date) в списке должны быть уникальны: PostgreSQL не даёт
+     * одному INSERT ... ON CONFLICT обновить строку дважды.
+     */
+    public ForecastUpsertResult upsert(List<ForecastDto> forecasts) {
+        if (forecasts.isEmpty()) {
+            return new ForecastUpsertResult(0, 0);
+        }
+        ForecastUpsertResult result = jdbcTemplate.execute(
+                (ConnectionCallback<ForecastUpsertResult>) connection -> {
+                    boolean postgres = connection.isWrapperFor(PGConnection.class);
+                    int rows = postgres ? Math.min(batchSize, MAX_POSTGRES_ROWS) : batchSize;
+                    int created = 0;
+                    for (int from = 0; from < forecasts.size(); from += rows) {
+                        List<ForecastDto> batch = forecasts.subList(from,
+                                Math.min(from + rows, forecasts.size()));
+                        created += postgres
+                                ? insertOnConflict(connection, batch)
+                                : updateThenInsert(connection, batch);
+                    }
+                    return new ForecastUpsertResult(created, forecasts.size() - created);
+                });
+        return result != null ? result : new ForecastUpsertResult(0, 0);
+    }
+
+    // Идентификаторы выдаются всем строкам заранее; у обновлённых строк они
+    // не используются и остаются пропусками в последовательности
+    private int insertOnConflict(Connection connection, List<ForecastDto> batch)
+            throws SQLException {
+        ForecastBulkLoader.assignIds(connection, batch, true);
+        StringBuilder sql = new StringBuilder("INSERT INTO forecasts (" + COLUMNS + ") VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+        }
+        sql.append(POSTGRES_CONFLICT);
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            for (ForecastDto forecast : batch) {
+                statement.setInt(parameter++, forecast.getId());
+                statement.setInt(parameter++, forecast.getCityId());
+                statement.setDate(parameter++, Date.valueOf(forecast.getDate()));
+                statement.setDouble(parameter++, forecast.getTemperatureMin());
+                statement.setDouble(parameter++, forecast.getTemperatureMax());
+                statement.setString(parameter++, forecast.getCondition());
+                statement.setDouble(parameter++, forecast.getHumidity());
+                statement.setDouble(parameter++, forecast.getWindSpeed());
+            }
+            int created = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getBoolean(1)) {
+                        created++;
+                    }
+                }
+            }
+            return created;
+        }
+    }
+
+    private int updateThenInsert(Connection connection, List<ForecastDto> batch)
+            throws SQLException {
+        List<ForecastDto> missing = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            for (ForecastDto forecast : batch) {
+                statement.setDouble(1, forecast.getTemperatureMin());
+                statement.setDouble(2, forecast.getTemperatureMax());
+                statement.setString(3, forecast.getCondition());
+                statement.setDouble(4, forecast.getHumidity());
+                statement.setDouble(5, forecast.getWindSpeed());
+                statement.setInt(6, forecast.getCityId());
+                statement.setDate(7, Date.valueOf(forecast.getDate()));
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(batch.get(i));
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        ForecastBulkLoader.assignIds(connection, missing, false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO forecasts (" + COLUMNS + ") VALUES " + ROW_PLACEHOLDERS)) {
+            for (ForecastDto forecast : missing) {
+                statement.setInt(1, forecast.getId());
+                statement.setInt(2, forecast.getCityId());
+                statement.setDate(3, Date.valueOf(forecast.getDate()));
+                statement.setDouble(4, forecast.getTemperatureMin());
+                statement.setDouble(5, forecast.getTemperatureMax());
+                statement.setString(6, forecast.getCondition());
+                statement.setDouble(7, forecast.getHumidity());
+                statement.setDouble(8, forecast.getWindSpeed());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return missing.size();
+    }
+}
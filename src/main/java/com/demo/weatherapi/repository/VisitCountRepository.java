@@ -0,0 +1,17 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.model.VisitCount;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VisitCountRepository extends JpaRepository<VisitCount, String> {
+
+    List<VisitCount> findAllByOrderByVisitsDesc(Limit limit);
+
+    @Query("SELECT COALESCE(SUM(v.visits), 0) FROM VisitCount v")
+    long sumVisits();
+}
@@ -0,0 +1,68 @@
+package com.demo.weatherapi.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Прибавляет накопленные приращения к счётчикам посещений одним пакетным
+ * UPSERT. На PostgreSQL - INSERT ... ON CONFLICT, на остальных базах
+ * (H2 в тестах) - стандартный MERGE. Все пакеты выполняются в одной
+ * транзакции: при ошибке не применяется ни одно приращение, и их можно
+ * вернуть в память для повторной выгрузки без двойного счёта.
+ */
+@Repository
+public class VisitCountWriter {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO visit_counts (route, visits) "
+            + "VALUES (?, ?) ON CONFLICT (route) "
+            + "DO UPDATE SET visits = visit_counts.visits + EXCLUDED.visits";
+
+    private static final String MERGE = "MERGE INTO visit_counts t "
+            + "USING (VALUES (CAST(? AS VARCHAR(2048)), CAST(? AS BIGINT))) s (route, visits) "
+            + "ON t.route = s.route "
+            + "WHEN MATCHED THEN UPDATE SET visits = t.visits + s.visits "
+            + "WHEN NOT MATCHED THEN INSERT (route, visits) VALUES (s.route, s.visits)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VisitCountWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public void addVisits(Map<String, Long> deltas, int batchSize) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            upsert(connection, deltas, batchSize);
+            return null;
+        });
+    }
+
+    private void upsert(Connection connection, Map<String, Long> deltas, int batchSize)
+            throws SQLException {
+        String sql = connection.isWrapperFor(PGConnection.class) ? POSTGRES_UPSERT : MERGE;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int batched = 0;
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                statement.setString(1, delta.getKey());
+                statement.setLong(2, delta.getValue());
+                statement.addBatch();
+                if (++batched % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (batched % batchSize != 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
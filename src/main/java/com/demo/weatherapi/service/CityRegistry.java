@@ -0,0 +1,189 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.repository.CityRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Справочник городов в памяти: неизменяемый снимок с индексами по id и по
+ * нормализованным (без учёта регистра и крайних пробелов) названию и стране.
+ * Изменения из CityService применяются копированием снимка после коммита.
+ * Города, созданные другими экземплярами приложения, подхватываются при
+ * промахе по id и при периодической перезагрузке (cities.registry.refresh-interval).
+ */
+@Component
+public class CityRegistry {
+    private static final Logger log = LoggerFactory.getLogger(CityRegistry.class);
+
+    private final CityRepository cityRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    public CityRegistry(CityRepository cityRepository) {
+        this.cityRepository = cityRepository;
+    }
+
+    public record Entry(Integer id, String name, String country) {
+        static Entry of(City city) {
+            return new Entry(city.getId(), city.getName(), city.getCountry());
+        }
+    }
+
+    public Entry find(Integer id) {
+        Entry entry = snapshot().byId().get(id);
+        if (entry == null) {
+            entry = cityRepository.findById(id).map(this::register).orElse(null);
+        }
+        return entry;
+    }
+
+    /**
+     * Города по списку id; отсутствующих в БД в результате нет.
+     */
+    public Map<Integer, Entry> findAll(Collection<Integer> ids) {
+        Map<Integer, Entry> byId = snapshot().byId();
+        Map<Integer, Entry> found = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : ids) {
+            Entry entry = byId.get(id);
+            if (entry != null) {
+                found.put(id, entry);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            cityRepository.findAllById(missing).forEach(city -> found.put(city.getId(),
+                    register(city)));
+        }
+        return found;
+    }
+
+    public List<Integer> findIdsByName(String name) {
+        List<Integer> ids = snapshot().idsByName().get(normalize(name));
+        return ids != null ? ids : cityRepository.findIdsByName(name);
+    }
+
+    public List<Integer> findIdsByNameAndCountry(String name, String country) {
+        List<Integer> ids = snapshot().idsByNameAndCountry().get(
+                new NameKey(normalize(name), normalize(country)));
+        return ids != null ? ids : cityRepository.findIdsByNameAndCountry(name, country);
+    }
+
+    public void put(City city) {
+        Entry entry = Entry.of(city);
+        afterCommit(() -> update(current -> current.with(entry)));
+    }
+
+    public void remove(Integer id) {
+        afterCommit(() -> update(current -> current.without(id)));
+    }
+
+    @Scheduled(fixedDelayString = "${cities.registry.refresh-interval:5m}",
+            initialDelayString = "${cities.registry.refresh-interval:5m}")
+    public void reload() {
+        Snapshot current = snapshot.get();
+        List<Entry> entries = new ArrayList<>();
+        cityRepository.findAll().forEach(city -> entries.add(Entry.of(city)));
+        // Если во время загрузки снимок изменили, загруженные данные могли
+        // устареть - оставляем текущий снимок до следующей перезагрузки
+        if (snapshot.compareAndSet(current, Snapshot.of(entries, true))) {
+            log.debug("Loaded {} cities into registry", entries.size());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (!current.loaded()) {
+            reload();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private Entry register(City city) {
+        Entry entry = Entry.of(city);
+        update(current -> current.with(entry));
+        return entry;
+    }
+
+    private void update(UnaryOperator<Snapshot> change) {
+        snapshot.updateAndGet(change);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record NameKey(String name, String country) {
+    }
+
+    private record Snapshot(Map<Integer, Entry> byId,
+                            Map<String, List<Integer>> idsByName,
+                            Map<NameKey, List<Integer>> idsByNameAndCountry,
+                            boolean loaded) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), false);
+
+        static Snapshot of(Collection<Entry> entries, boolean loaded) {
+            Map<Integer, Entry> byId = new HashMap<>();
+            Map<String, List<Integer>> byName = new HashMap<>();
+            Map<NameKey, List<Integer>> byNameAndCountry = new HashMap<>();
+            for (Entry entry : entries) {
+                byId.put(entry.id(), entry);
+                String name = normalize(entry.name());
+                byName.computeIfAbsent(name, k -> new ArrayList<>()).add(entry.id());
+                byNameAndCountry.computeIfAbsent(new NameKey(name, normalize(entry.country())),
+                        k -> new ArrayList<>()).add(entry.id());
+            }
+            byName.replaceAll((name, ids) -> List.copyOf(ids));
+            byNameAndCountry.replaceAll((key, ids) -> List.copyOf(ids));
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byName),
+                    Map.copyOf(byNameAndCountry), loaded);
+        }
+
+        // Городов немного, поэтому индексы при изменении просто строятся заново
+        Snapshot with(Entry entry) {
+            Map<Integer, Entry> entries = new HashMap<>(byId);
+            entries.put(entry.id(), entry);
+            return of(entries.values(), loaded);
+        }
+
+        Snapshot without(Integer id) {
+            if (!byId.containsKey(id)) {
+                return this;
+            }
+            Map<Integer, Entry> entries = new HashMap<>(byId);
+            entries.remove(id);
+            return of(entries.values(), loaded);
+        }
+    }
+}
@@ -14,22 +14,36 @@ public class CityService {
 
     private final CityRepository cityRepository;
     private final CityMapper cityMapper;
+    private final CityRegistry cityRegistry;
 
-    public CityService(CityRepository cityRepository, CityMapper cityMapper) {
+    public CityService(CityRepository cityRepository, CityMapper cityMapper,
+                       CityRegistry cityRegistry) {
         this.cityRepository = cityRepository;
         this.cityMapper = cityMapper;
+        this.cityRegistry = cityRegistry;
     }
 
     @Transactional
     public CityDto create(CityDto cityDto) {
         City city = cityMapper.toEntity(cityDto);
         City savedCity = cityRepository.save(city);
+        cityRegistry.put(savedCity);
         return cityMapper.toDto(savedCity);
     }
 
+    /**
+     * Список городов. По умолчанию - сводка с числом прогнозов и датой последнего
+     * из одного агрегирующего запроса; прогнозы целиком загружаются только при
+     * includeForecasts = true, вместе с городами одним запросом с fetch join.
+     */
     @Transactional(readOnly = true)
-    public List<CityDto> getAll() {
-        return cityRepository.findAll().stream()
+    public List<CityDto> getAll(boolean includeForecasts) {
+        if (includeForecasts) {
+            return cityRepository.findAllWithForecasts().stream()
+                    .map(cityMapper::toDto)
+                    .collect(Collectors.toList());
+        }
+        return cityRepository.findSummaries().stream()
                 .map(cityMapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -45,6 +59,7 @@ public class CityService {
     public boolean delete(Integer id) {
         if (cityRepository.existsById(id)) {
             cityRepository.deleteById(id);
+            cityRegistry.remove(id);
             return true;
         }
         return false;
@@ -57,6 +72,7 @@ public class CityService {
         }
         City city = cityMapper.toEntity(cityDto);
         City updatedCity = cityRepository.save(city);
+        cityRegistry.put(updatedCity);
         return cityMapper.toDto(updatedCity);
     }
 }
\ No newline at end of file
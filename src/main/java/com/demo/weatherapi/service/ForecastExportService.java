@@ -0,0 +1,58 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.repository.ForecastRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ForecastExportService {
+    private static final Logger log = LoggerFactory.getLogger(ForecastExportService.class);
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final ForecastRepository forecastRepository;
+    private final ObjectMapper objectMapper;
+
+    public ForecastExportService(ForecastRepository forecastRepository,
+                                 ObjectMapper objectMapper) {
+        this.forecastRepository = forecastRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Пишет все прогнозы JSON-массивом прямо в поток ответа. Строки читаются
+     * курсором сразу в ForecastDto: сущности не создаются и не попадают в
+     * контекст, поэтому память не растёт вместе с таблицей.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<ForecastDto> forecasts = forecastRepository.streamAllDtosOrderById();
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+
+            Iterator<ForecastDto> iterator = forecasts.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+
+            generator.writeEndArray();
+        }
+        log.info("Exported {} forecasts", count);
+        return count;
+    }
+}
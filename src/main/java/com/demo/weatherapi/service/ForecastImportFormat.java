@@ -0,0 +1,26 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum ForecastImportFormat {
+    CSV(ForecastImportFormat.TEXT_CSV_VALUE),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ForecastImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ForecastImportFormat fromMediaType(MediaType contentType) {
+        for (ForecastImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Неподдерживаемый формат импорта: " + contentType);
+    }
+}
@@ -0,0 +1,153 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Разбирает одну строку входных данных импорта в ForecastDto.
+ * Ошибки формата сообщаются через BadRequestException, чтобы
+ * отклонять строку, а не весь импорт.
+ */
+abstract class ForecastImportParser {
+
+    static ForecastImportParser forFormat(ForecastImportFormat format, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new Csv();
+            case NDJSON -> new Ndjson(objectMapper);
+        };
+    }
+
+    // Вызывается для каждой непустой строки; формат с заголовком забирает первую из них
+    boolean consumeHeader(String line) {
+        return false;
+    }
+
+    abstract ForecastDto parse(String line);
+
+    static final class Ndjson extends ForecastImportParser {
+        private final ObjectMapper objectMapper;
+
+        Ndjson(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ForecastDto parse(String line) {
+            try {
+                ForecastDto dto = objectMapper.readValue(line, ForecastDto.class);
+                if (dto == null) {
+                    throw new BadRequestException("Некорректные данные прогноза");
+                }
+                dto.setId(null);
+                return dto;
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("Некорректный JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Заголовок обязателен: колонки сопоставляются по именам полей ForecastDto
+    static final class Csv extends ForecastImportParser {
+        private static final List<String> REQUIRED_COLUMNS = List.of(
+                "cityId", "date", "temperatureMin", "temperatureMax",
+                "condition", "humidity", "windSpeed");
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        @Override
+        boolean consumeHeader(String line) {
+            if (!columns.isEmpty()) {
+                return false;
+            }
+            readHeader(line);
+            return true;
+        }
+
+        private void readHeader(String line) {
+            List<String> header = split(line);
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                    .filter(column -> !columns.containsKey(column))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("В заголовке CSV нет колонок: " + missing);
+            }
+        }
+
+        @Override
+        ForecastDto parse(String line) {
+            List<String> values = split(line);
+            if (values.size() < columns.size()) {
+                throw new BadRequestException("Ожидалось колонок: " + columns.size()
+                        + ", получено: " + values.size());
+            }
+
+            ForecastDto dto = new ForecastDto();
+            dto.setCityId(parseColumn(values, "cityId", Integer::valueOf));
+            dto.setDate(parseColumn(values, "date", LocalDate::parse));
+            dto.setTemperatureMin(parseColumn(values, "temperatureMin", Double::valueOf));
+            dto.setTemperatureMax(parseColumn(values, "temperatureMax", Double::valueOf));
+            dto.setCondition(values.get(columns.get("condition")));
+            dto.setHumidity(parseColumn(values, "humidity", Double::valueOf));
+            dto.setWindSpeed(parseColumn(values, "windSpeed", Double::valueOf));
+            return dto;
+        }
+
+        private <T> T parseColumn(List<String> values, String column,
+                                  Function<String, T> parser) {
+            String value = values.get(columns.get(column)).trim();
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new BadRequestException(
+                        "Некорректное значение в колонке " + column + ": " + value);
+            }
+        }
+
+        // Поля в двойных кавычках могут содержать запятые, кавычка внутри экранируется как ""
+        static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new BadRequestException("Незакрытая кавычка в строке CSV");
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+}
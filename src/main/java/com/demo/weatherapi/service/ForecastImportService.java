@@ -0,0 +1,161 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastImportResult;
+import com.demo.weatherapi.dto.ForecastImportResult.RejectedRow;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastBulkLoader;
+import com.demo.weatherapi.repository.ForecastKey;
+import com.demo.weatherapi.repository.ForecastRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ForecastImportService {
+    private static final Logger log = LoggerFactory.getLogger(ForecastImportService.class);
+
+    static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final String BOM = "\uFEFF";
+
+    private final CityRepository cityRepository;
+    private final ForecastRepository forecastRepository;
+    private final ForecastBulkLoader bulkLoader;
+    private final ForecastCache forecastCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ForecastImportService(CityRepository cityRepository,
+                                 ForecastRepository forecastRepository,
+                                 ForecastBulkLoader bulkLoader,
+                                 ForecastCache forecastCache,
+                                 ObjectMapper objectMapper,
+                                 @Value("${forecast.import.batch-size:5000}") int batchSize) {
+        this.cityRepository = cityRepository;
+        this.forecastRepository = forecastRepository;
+        this.bulkLoader = bulkLoader;
+        this.forecastCache = forecastCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Читает тело запроса построчно и загружает прогнозы пачками по batchSize.
+     * Некорректные строки не прерывают импорт, а попадают в отчёт.
+     */
+    @Transactional
+    public ForecastImportResult importForecasts(InputStream body, ForecastImportFormat format)
+            throws IOException {
+        ForecastImportParser parser = ForecastImportParser.forFormat(format, objectMapper);
+        ImportState state = new ImportState(cityRepository.findAllIds());
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith(BOM)) {
+                    line = line.substring(BOM.length());
+                }
+                if (line.isBlank() || parser.consumeHeader(line)) {
+                    continue;
+                }
+
+                try {
+                    ForecastDto dto = parser.parse(line);
+                    ForecastValidator.validateForInsert(dto);
+                    if (!state.knownCityIds.contains(dto.getCityId())) {
+                        throw new BadRequestException(
+                                "Город с ID " + dto.getCityId() + " не найден");
+                    }
+                    state.batch.add(new ImportRow(lineNumber, dto));
+                } catch (BadRequestException e) {
+                    state.reject(lineNumber, e.getMessage());
+                } catch (RuntimeException e) {
+                    log.debug("Import line {} could not be parsed", lineNumber, e);
+                    state.reject(lineNumber, "Некорректная строка");
+                }
+
+                if (state.batch.size() >= batchSize) {
+                    flush(state);
+                }
+            }
+        }
+        flush(state);
+
+        state.affectedCityIds.forEach(forecastCache::evictForecastsByCity);
+        log.info("Imported {} forecasts, rejected {}", state.imported, state.rejected);
+        return new ForecastImportResult(state.imported, state.rejected, state.rejectedRows);
+    }
+
+    private void flush(ImportState state) {
+        if (state.batch.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> cityIds = state.batch.stream()
+                .map(row -> row.dto().getCityId())
+                .collect(Collectors.toSet());
+        Set<ForecastKey> existingKeys = new HashSet<>(forecastRepository
+                .findKeysByCityIdsAndDates(cityIds, state.batch.stream()
+                        .map(row -> row.dto().getDate())
+                        .collect(Collectors.toSet())));
+
+        List<ForecastDto> accepted = new ArrayList<>(state.batch.size());
+        for (ImportRow row : state.batch) {
+            ForecastDto dto = row.dto();
+            if (!existingKeys.add(new ForecastKey(dto.getCityId(), dto.getDate()))) {
+                state.reject(row.line(), String.format(
+                        "Прогноз для города ID %d на дату %s уже существует",
+                        dto.getCityId(), dto.getDate().format(DateTimeFormatter.ISO_DATE)));
+                continue;
+            }
+            accepted.add(dto);
+            state.affectedCityIds.add(dto.getCityId());
+        }
+
+        state.imported += bulkLoader.load(accepted);
+        state.batch.clear();
+    }
+
+    private record ImportRow(long line, ForecastDto dto) {
+    }
+
+    private static final class ImportState {
+        private final Set<Integer> knownCityIds;
+        private final List<ImportRow> batch = new ArrayList<>();
+        private final Set<Integer> affectedCityIds = new HashSet<>();
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportState(Set<Integer> knownCityIds) {
+            this.knownCityIds = knownCityIds;
+        }
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+                rejectedRows.add(new RejectedRow(line, reason));
+            }
+        }
+    }
+}
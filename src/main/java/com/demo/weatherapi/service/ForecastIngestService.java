@@ -0,0 +1,289 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastIngestStatus;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.exception.ResourceNotFoundException;
+import com.demo.weatherapi.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Асинхронная загрузка прогнозов: запрос только проверяется и ставится
+ * в ограниченную очередь, а фиксированное число воркеров пишет прогнозы
+ * в БД пакетами. Если места в очереди нет, клиент сразу получает 429.
+ * Статусы завершённых пакетов хранятся status-ttl, но не больше max-statuses:
+ * при заполнении вытесняются самые давние завершённые.
+ */
+@Service
+public class ForecastIngestService {
+    private static final Logger log = LoggerFactory.getLogger(ForecastIngestService.class);
+
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+
+    static final int MAX_REPORTED_ERRORS = 20;
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final ForecastService forecastService;
+    private final int queueCapacity;
+    private final BlockingQueue<IngestItem> queue;
+    // Разрешения резервируют место под весь пакет сразу, до постановки в очередь
+    private final Semaphore freeSlots;
+    private final Map<String, IngestBatch> batches = new ConcurrentHashMap<>();
+    private final int workerCount;
+    private final int batchSize;
+    private final long maxBatchDelayNanos;
+    private final long retryAfterSeconds;
+    private final long statusTtlMillis;
+    private final int maxStatuses;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public ForecastIngestService(
+            ForecastService forecastService,
+            @Value("${forecast.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${forecast.ingest.workers:2}") int workerCount,
+            @Value("${forecast.ingest.batch-size:500}") int batchSize,
+            @Value("${forecast.ingest.max-batch-delay:50ms}") Duration maxBatchDelay,
+            @Value("${forecast.ingest.retry-after:1s}") Duration retryAfter,
+            @Value("${forecast.ingest.status-ttl:1h}") Duration statusTtl,
+            @Value("${forecast.ingest.max-statuses:10000}") int maxStatuses) {
+        this.forecastService = forecastService;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.freeSlots = new Semaphore(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.statusTtlMillis = statusTtl.toMillis();
+        this.maxStatuses = maxStatuses;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "ForecastIngest-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainQueue);
+        }
+        log.info("Started {} ingest workers, queue capacity {}", workerCount, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Ingest workers stopped with {} forecasts still queued", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    public ForecastIngestStatus submit(List<ForecastDto> forecasts) {
+        if (forecasts == null || forecasts.isEmpty()) {
+            throw new BadRequestException("Список прогнозов не может быть null или пустым");
+        }
+        if (forecasts.size() > queueCapacity) {
+            throw new BadRequestException(
+                    "Размер пакета превышает ёмкость очереди: " + queueCapacity);
+        }
+        forecasts.forEach(ForecastValidator::validate);
+
+        if (!freeSlots.tryAcquire(forecasts.size())) {
+            throw new TooManyRequestsException(
+                    "Очередь загрузки прогнозов переполнена, повторите позже", retryAfterSeconds);
+        }
+
+        if (batches.size() >= maxStatuses) {
+            evictOldestFinished(batches.size() - maxStatuses + 1);
+        }
+        IngestBatch batch = new IngestBatch(UUID.randomUUID().toString(), forecasts.size());
+        batches.put(batch.id, batch);
+        for (ForecastDto forecast : forecasts) {
+            forecast.setId(null);
+            // Место уже зарезервировано семафором, поэтому add не может не пройти
+            queue.add(new IngestItem(batch, forecast));
+        }
+        return batch.toStatus();
+    }
+
+    public ForecastIngestStatus getStatus(String batchId) {
+        IngestBatch batch = batches.get(batchId);
+        if (batch == null) {
+            throw new ResourceNotFoundException("Пакет загрузки " + batchId + " не найден");
+        }
+        return batch.toStatus();
+    }
+
+    int queuedCount() {
+        return queue.size();
+    }
+
+    private void drainQueue() {
+        List<IngestItem> items = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                IngestItem first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                items.add(first);
+                collectMicroBatch(items);
+                freeSlots.release(items.size());
+                write(items);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ingest worker failed to process batch", e);
+            } finally {
+                items.clear();
+            }
+        }
+    }
+
+    // Добирает элементы до batchSize, но ждёт новые не дольше maxBatchDelay
+    private void collectMicroBatch(List<IngestItem> items) throws InterruptedException {
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (items.size() < batchSize) {
+            if (queue.drainTo(items, batchSize - items.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            IngestItem next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            items.add(next);
+        }
+    }
+
+    private void write(List<IngestItem> items) {
+        try {
+            forecastService.createBulk(items.stream().map(IngestItem::forecast).toList());
+            items.forEach(item -> item.batch().recordWritten());
+        } catch (RuntimeException e) {
+            // Пакетная вставка откатилась целиком: повторяем построчно,
+            // чтобы записать корректные прогнозы и отметить ошибочные
+            log.debug("Bulk write of {} forecasts failed, retrying one by one", items.size());
+            for (IngestItem item : items) {
+                try {
+                    forecastService.create(item.forecast());
+                    item.batch().recordWritten();
+                } catch (RuntimeException rowError) {
+                    item.batch().recordFailed(rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${forecast.ingest.status-purge-interval:1m}",
+            initialDelayString = "${forecast.ingest.status-purge-interval:1m}")
+    public void purgeExpiredBatches() {
+        long expiredBefore = System.currentTimeMillis() - statusTtlMillis;
+        int before = batches.size();
+        batches.values().removeIf(batch -> batch.isDone() && batch.lastUpdated < expiredBefore);
+        int removed = before - batches.size();
+        if (removed > 0) {
+            log.debug("Purged {} expired ingest statuses", removed);
+        }
+    }
+
+    // Выполняющиеся пакеты не вытесняются: их число и так ограничено ёмкостью очереди
+    private void evictOldestFinished(int excess) {
+        batches.values().stream()
+                .filter(IngestBatch::isDone)
+                .sorted(Comparator.comparingLong(batch -> batch.lastUpdated))
+                .limit(excess)
+                .toList()
+                .forEach(batch -> batches.remove(batch.id, batch));
+    }
+
+    private record IngestItem(IngestBatch batch, ForecastDto forecast) {
+    }
+
+    private static final class IngestBatch {
+        private final String id;
+        private final int total;
+        private final long createdAt = System.currentTimeMillis();
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<String> errors = new ArrayList<>();
+        private volatile long lastUpdated = createdAt;
+
+        private IngestBatch(String id, int total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        private void recordWritten() {
+            written.incrementAndGet();
+            lastUpdated = System.currentTimeMillis();
+        }
+
+        private void recordFailed(String error) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+            lastUpdated = System.currentTimeMillis();
+        }
+
+        private boolean isDone() {
+            return written.get() + failed.get() >= total;
+        }
+
+        private ForecastIngestStatus toStatus() {
+            String status;
+            if (!isDone()) {
+                status = STATUS_PROCESSING;
+            } else {
+                status = failed.get() == 0 ? STATUS_COMPLETED : STATUS_COMPLETED_WITH_ERRORS;
+            }
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new ForecastIngestStatus(id, status, total, written.get(), failed.get(),
+                    new Date(createdAt), errorsCopy);
+        }
+    }
+}
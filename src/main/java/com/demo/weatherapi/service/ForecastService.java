@@ -8,7 +8,7 @@ public interface ForecastService {
 
     ForecastDto create(ForecastDto forecastDto);
 
-    List<ForecastDto> readAll();
+    List<ForecastDto> readPage(int afterId, int limit);
 
     ForecastDto read(Integer forecastId);
 
@@ -22,8 +22,8 @@ public interface ForecastService {
 
     List<ForecastDto> getForecastsByCityId(Integer cityId);
 
-    List<ForecastDto> findByFilters(
-            String cityName, LocalDate date, Double minTemp, Double maxTemp);
+    List<ForecastDto> findByFilters(String cityName, LocalDate date,
+                                    Double minTemp, Double maxTemp, int page, int size);
 
     List<ForecastDto> createBulk(List<ForecastDto> forecasts);
 
@@ -8,22 +8,40 @@ import com.demo.weatherapi.mapper.ForecastMapper;
 import com.demo.weatherapi.model.City;
 import com.demo.weatherapi.model.Forecast;
 import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastKey;
 import com.demo.weatherapi.repository.ForecastRepository;
+import com.demo.weatherapi.repository.ForecastSpecifications;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ForecastServiceImpl implements ForecastService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    // Ограничивает число параметров в условиях IN (...) массовых операций
+    private static final int ID_CHUNK_SIZE = 1000;
+
     private final ForecastRepository forecastRepository;
     private final CityRepository cityRepository;
+    private final CityRegistry cityRegistry;
     private final ForecastMapper forecastMapper;
     private final ForecastCache forecastCache;
     String cityWithId = "Город с ID ";
@@ -31,10 +49,12 @@ public class ForecastServiceImpl implements ForecastService {
 
     public ForecastServiceImpl(ForecastRepository forecastRepository,
                                CityRepository cityRepository,
+                               CityRegistry cityRegistry,
                                ForecastMapper forecastMapper,
                                ForecastCache forecastCache) {
         this.forecastRepository = forecastRepository;
         this.cityRepository = cityRepository;
+        this.cityRegistry = cityRegistry;
         this.forecastMapper = forecastMapper;
         this.forecastCache = forecastCache;
     }
@@ -42,40 +62,62 @@ public class ForecastServiceImpl implements ForecastService {
     @Override
     @Transactional
     public ForecastDto create(ForecastDto forecastDto) {
-        validateForecastDto(forecastDto);
+        ForecastValidator.validate(forecastDto);
 
-        City city = cityRepository.findById(forecastDto.getCityId()).orElseThrow(() ->
-                new BadRequestException(cityWithId + forecastDto.getCityId() + notFound));
+        CityRegistry.Entry entry = findCity(forecastDto.getCityId());
+        Forecast forecast = forecastMapper.toEntity(forecastDto);
+        return getForecastDto(forecastDto, entry, forecast);
+    }
 
-        if (forecastRepository.existsByCityAndDate(city, forecastDto.getDate())) {
+    // Дубликат (город, дата) отклоняет уникальный индекс при flush - без
+    // отдельного запроса на существование и без гонки между проверкой и вставкой
+    private ForecastDto getForecastDto(ForecastDto forecastDto, CityRegistry.Entry entry,
+                                       Forecast forecast) {
+        City city = cityRepository.getReferenceById(entry.id());
+        forecast.setCity(city);
+        Forecast savedForecast;
+        try {
+            savedForecast = forecastRepository.saveAndFlush(forecast);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateCityAndDate(e)) {
+                throw e;
+            }
             throw new BadRequestException(
                     String.format("Прогноз на %s для города %s уже существует",
                             forecastDto.getDate().format(DateTimeFormatter.ISO_DATE),
-                            city.getName()));
+                            entry.name()));
         }
-
-        Forecast forecast = forecastMapper.toEntity(forecastDto);
-        return getForecastDto(forecastDto, city, forecast);
-    }
-
-    private ForecastDto getForecastDto(ForecastDto forecastDto, City city, Forecast forecast) {
-        forecast.setCity(city);
-        Forecast savedForecast = forecastRepository.save(forecast);
         ForecastDto savedDto = forecastMapper.toDto(savedForecast);
 
-        forecastCache.cacheSingleForecast(savedDto);
+        // Сброс по городу выполнится после коммита и уберёт и этот прогноз,
+        // поэтому сохранённый прогноз в кэш заранее не кладётся
         forecastCache.evictForecastsByCity(city.getId());
         forecastCache.evictForecastsByCityAndDate(city.getId(), forecastDto.getDate());
 
         return savedDto;
     }
 
+    // H2 дописывает к имени схему и суффикс индекса, PostgreSQL возвращает имя как есть
+    private static boolean isDuplicateCityAndDate(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT)
+                        .contains(Forecast.UNIQUE_CITY_DATE);
+            }
+        }
+        return false;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public List<ForecastDto> readAll() {
-        return forecastRepository.findAll().stream()
-                .map(forecastMapper::toDto)
-                .toList();
+    public List<ForecastDto> readPage(int afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(
+                    "Некорректный размер страницы: limit от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        return forecastRepository.findDtosAfterId(afterId, Limit.of(limit));
     }
 
     @Override
@@ -86,10 +128,9 @@ public class ForecastServiceImpl implements ForecastService {
             return cached;
         }
 
-        Forecast forecast = forecastRepository.findById(forecastId).orElseThrow(() ->
+        ForecastDto dto = forecastRepository.findDtoById(forecastId).orElseThrow(() ->
                 new ResourceNotFoundException(cityWithId + forecastId + notFound));
 
-        ForecastDto dto = forecastMapper.toDto(forecast);
         forecastCache.cacheSingleForecast(dto);
         return dto;
     }
@@ -97,16 +138,24 @@ public class ForecastServiceImpl implements ForecastService {
     @Override
     @Transactional
     public ForecastDto update(ForecastDto forecastDto, Integer forecastId) {
-        validateForecastDto(forecastDto);
+        ForecastValidator.validate(forecastDto);
 
         Forecast existingForecast = forecastRepository.findById(forecastId).orElseThrow(() ->
                 new ResourceNotFoundException(cityWithId + forecastId + notFound));
 
-        City city = cityRepository.findById(forecastDto.getCityId()).orElseThrow(() ->
-                new BadRequestException(cityWithId + forecastDto.getCityId() + notFound));
+        CityRegistry.Entry entry = findCity(forecastDto.getCityId());
+        // Прогноз может переехать в другой город: в кэше он и списки старого города
+        // проиндексированы по прежнему городу, сброс только нового их не затронет
+        Integer previousCityId = existingForecast.getCity().getId();
 
         forecastMapper.updateFromDto(forecastDto, existingForecast);
-        return getForecastDto(forecastDto, city, existingForecast);
+        ForecastDto updatedDto = getForecastDto(forecastDto, entry, existingForecast);
+
+        forecastCache.evictSingleForecast(forecastId);
+        if (!previousCityId.equals(entry.id())) {
+            forecastCache.evictForecastsByCity(previousCityId);
+        }
+        return updatedDto;
     }
 
     @Override
@@ -139,10 +188,12 @@ public class ForecastServiceImpl implements ForecastService {
             return cached;
         }
 
-        List<ForecastDto> forecasts = forecastRepository.findForecastsByNameAndDate(name, date)
-                .stream().map(forecastMapper::toDto).toList();
+        List<Integer> cityIds = cityRegistry.findIdsByName(name);
+        List<ForecastDto> forecasts = cityIds.isEmpty()
+                ? List.of()
+                : forecastRepository.findDtosByCityIdsAndDate(cityIds, date);
 
-        forecastCache.cacheForecastsByNameAndDate(name, date, forecasts);
+        forecastCache.cacheForecastsByNameAndDate(name, date, cityIds, forecasts);
         return forecasts;
     }
 
@@ -158,10 +209,12 @@ public class ForecastServiceImpl implements ForecastService {
             return cached;
         }
 
-        List<ForecastDto> forecasts = forecastRepository.findForecastsByName(name, country)
-                .stream().map(forecastMapper::toDto).toList();
+        List<Integer> cityIds = cityRegistry.findIdsByNameAndCountry(name, country);
+        List<ForecastDto> forecasts = cityIds.isEmpty()
+                ? List.of()
+                : forecastRepository.findDtosByCityIds(cityIds);
 
-        forecastCache.cacheForecastsByName(name, country, forecasts);
+        forecastCache.cacheForecastsByName(name, country, cityIds, forecasts);
         return forecasts;
     }
 
@@ -177,59 +230,30 @@ public class ForecastServiceImpl implements ForecastService {
             return cached;
         }
 
-        List<ForecastDto> forecasts = forecastRepository.findByCityId(cityId).stream()
-                .map(forecastMapper::toDto).toList();
+        List<ForecastDto> forecasts = forecastRepository.findDtosByCityId(cityId);
 
         forecastCache.cacheForecastsByCityId(cityId, forecasts);
         return forecasts;
     }
 
-    private void validateForecastDto(ForecastDto forecastDto) {
-        if (forecastDto == null || forecastDto.getCityId() == null
-                || forecastDto.getDate() == null) {
-            throw new BadRequestException("Некорректные данные прогноза");
-        }
-
-        if (forecastDto.getTemperatureMin() > forecastDto.getTemperatureMax()) {
-            throw new BadRequestException(
-                "Минимальная температура не может быть выше максимальной");
-        }
-
-        if (forecastDto.getTemperatureMin() < -100) {
-            throw new BadRequestException("Минимальная температура не может быть ниже -100°C");
-        }
-
-        if (forecastDto.getTemperatureMin() > 100) {
-            throw new BadRequestException("Минимальная температура не может быть выше 100°C");
-        }
-
-        if (forecastDto.getTemperatureMax() > 100) {
-            throw new BadRequestException("Максимальная температура не может быть выше 100°C");
-        }
-
-        if (forecastDto.getHumidity() > 100) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<ForecastDto> findByFilters(String cityName, LocalDate date,
+                                           Double minTemp, Double maxTemp, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
             throw new BadRequestException(
-                    "Относительная влажность воздуха не может быть больше 100%");
+                    "Некорректные параметры страницы: page >= 0, size от 1 до "
+                            + MAX_PAGE_SIZE);
         }
-
-        if (forecastDto.getHumidity() < 0) {
-            throw new BadRequestException(
-                    "Относительная влажность воздуха не может быть меньше 0%");
+        // Смещение page * size передаётся в запрос как int
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new BadRequestException("Некорректные параметры страницы: слишком большой page");
         }
-    }
 
-    @Transactional
-    public List<ForecastDto> findByFilters(
-            String cityName, LocalDate date, Double minTemp, Double maxTemp) {
-        return forecastRepository.findAll().stream()
-                .filter(f -> cityName == null
-                        || (f.getCity() != null && cityName.equalsIgnoreCase(
-                                f.getCity().getName())))
-                .filter(f -> date == null || f.getDate().equals(date))
-                .filter(f -> minTemp == null
-                        || (f.getTemperatureMin() != null && f.getTemperatureMin() >= minTemp))
-                .filter(f -> maxTemp == null
-                        || (f.getTemperatureMax() != null && f.getTemperatureMax() <= maxTemp))
+        Specification<Forecast> filter =
+                ForecastSpecifications.byFilters(cityName, date, minTemp, maxTemp);
+        return forecastRepository.findByFilters(filter, PageRequest.of(page, size, Sort.by("id")))
+                .stream()
                 .map(forecastMapper::toDto).toList();
     }
 
@@ -239,91 +263,118 @@ public class ForecastServiceImpl implements ForecastService {
         if (forecastDtos == null || forecastDtos.isEmpty()) {
             throw new BadRequestException("Список прогнозов не может быть null или пустым");
         }
+        forecastDtos.forEach(ForecastValidator::validate);
 
         Set<Integer> cityIds = forecastDtos.stream()
                 .map(ForecastDto::getCityId)
                 .collect(Collectors.toSet());
 
-        Map<Integer, City> cities = cityRepository.findAllById(cityIds)
-                .stream()
-                .collect(Collectors.toMap(City::getId, Function.identity()));
+        Map<Integer, City> cities = findCitiesById(cityIds);
 
-        Set<Integer> missingCityIds = cityIds.stream()
-                .filter(id -> !cities.containsKey(id))
+        Set<LocalDate> dates = forecastDtos.stream()
+                .map(ForecastDto::getDate)
                 .collect(Collectors.toSet());
-
-        if (!missingCityIds.isEmpty()) {
-            throw new BadRequestException("Города с ID не найдены: " + missingCityIds);
-        }
+        Set<ForecastKey> existingKeys = findExistingKeys(cityIds, dates);
+        Set<ForecastKey> requestedKeys = new HashSet<>();
 
         forecastDtos.forEach(dto -> {
-            City city = cities.get(dto.getCityId());
-            if (forecastRepository.existsByCityAndDate(city, dto.getDate())) {
+            ForecastKey key = new ForecastKey(dto.getCityId(), dto.getDate());
+            if (existingKeys.contains(key)) {
                 throw new BadRequestException(
                         String.format("Прогноз для города ID %d на дату %s уже существует",
                                 dto.getCityId(),
                                 dto.getDate().format(DateTimeFormatter.ISO_DATE))
                 );
             }
+            if (!requestedKeys.add(key)) {
+                throw new BadRequestException(
+                        String.format("Прогноз для города ID %d на дату %s указан несколько раз",
+                                dto.getCityId(),
+                                dto.getDate().format(DateTimeFormatter.ISO_DATE))
+                );
+            }
         });
 
         List<Forecast> forecasts = forecastDtos.stream()
                 .map(dto -> {
                     Forecast forecast = forecastMapper.toEntity(dto);
+                    forecast.setId(null);
                     forecast.setCity(cities.get(dto.getCityId()));
                     return forecast;
                 }).toList();
 
-        List<Forecast> savedForecasts = forecastRepository.saveAll(forecasts);
+        List<Forecast> savedForecasts = forecastRepository.insertAll(forecasts);
 
-        if (forecastCache != null) {
-            savedForecasts.forEach(forecast -> {
-                ForecastDto dto = forecastMapper.toDto(forecast);
-                forecastCache.cacheSingleForecast(dto);
-                forecastCache.evictForecastsByCity(forecast.getCity().getId());
-            });
-        }
+        cityIds.forEach(forecastCache::evictForecastsByCity);
 
         return savedForecasts.stream()
                 .map(forecastMapper::toDto).toList();
     }
 
+    private Set<ForecastKey> findExistingKeys(Set<Integer> cityIds, Set<LocalDate> dates) {
+        Set<ForecastKey> existingKeys = new HashSet<>();
+        for (List<Integer> chunk : chunks(List.copyOf(cityIds))) {
+            existingKeys.addAll(forecastRepository.findKeysByCityIdsAndDates(chunk, dates));
+        }
+        return existingKeys;
+    }
+
     @Override
     @Transactional
     public List<ForecastDto> updateBulk(List<ForecastDto> forecastDtos) {
         if (forecastDtos == null || forecastDtos.isEmpty()) {
             throw new BadRequestException("Список прогнозов не может быть null или пустым");
         }
+        forecastDtos.forEach(dto -> {
+            ForecastValidator.validate(dto);
+            if (dto.getId() == null) {
+                throw new BadRequestException("ID прогноза обязателен для обновления");
+            }
+        });
 
-        List<Integer> ids = forecastDtos.stream().map(ForecastDto::getId).toList();
-        Map<Integer, Forecast> existingForecasts = forecastRepository.findAllById(ids)
-                .stream()
-                .collect(Collectors.toMap(Forecast::getId, Function.identity()));
-
-        if (existingForecasts.size() != forecastDtos.size()) {
-            throw new ResourceNotFoundException("Некоторые прогнозы не найдены");
-        }
+        Map<Integer, ForecastDto> dtosById = forecastDtos.stream()
+                .collect(Collectors.toMap(ForecastDto::getId, Function.identity(), (a, b) -> {
+                    throw new BadRequestException(
+                            "Прогноз с ID " + a.getId() + " указан несколько раз");
+                }, LinkedHashMap::new));
 
-        return forecastDtos.stream()
-                .map(dto -> {
-                    Forecast existing = existingForecasts.get(dto.getId());
-                    City city = cityRepository.findById(dto.getCityId())
-                            .orElseThrow(() -> new BadRequestException(
-                                    "Город с ID " + dto.getCityId() + " не найден"));
+        Set<Integer> cityIds = forecastDtos.stream()
+                .map(ForecastDto::getCityId)
+                .collect(Collectors.toSet());
+        Map<Integer, City> cities = findCitiesById(cityIds);
+
+        Set<Integer> affectedCityIds = new HashSet<>(cityIds);
+        Map<Integer, Forecast> updatedForecasts = new HashMap<>();
+        List<Integer> ids = List.copyOf(dtosById.keySet());
+
+        // Изменения применяются к загруженным сущностям, а UPDATE отправляются пачками
+        // при flush (hibernate.jdbc.batch_size + order_updates)
+        for (List<Integer> chunk : chunks(ids)) {
+            List<Forecast> existingForecasts = forecastRepository.findAllById(chunk);
+            if (existingForecasts.size() != chunk.size()) {
+                Set<Integer> foundIds = existingForecasts.stream()
+                        .map(Forecast::getId)
+                        .collect(Collectors.toSet());
+                throw new ResourceNotFoundException("Прогнозы с ID не найдены: "
+                        + chunk.stream().filter(id -> !foundIds.contains(id)).toList());
+            }
 
-                    forecastMapper.updateFromDto(dto, existing);
-                    existing.setCity(city);
+            for (Forecast existing : existingForecasts) {
+                ForecastDto dto = dtosById.get(existing.getId());
+                affectedCityIds.add(existing.getCity().getId());
 
-                    Forecast updated = forecastRepository.save(existing);
-                    ForecastDto updatedDto = forecastMapper.toDto(updated);
+                forecastMapper.updateFromDto(dto, existing);
+                existing.setCity(cities.get(dto.getCityId()));
+                updatedForecasts.put(existing.getId(), existing);
+            }
+            forecastRepository.flush();
+        }
 
-                    forecastCache.cacheSingleForecast(updatedDto);
-                    forecastCache.evictForecastsByCity(city.getId());
-                    forecastCache.evictForecastsByCityAndDate(city.getId(), updatedDto.getDate());
+        affectedCityIds.forEach(forecastCache::evictForecastsByCity);
 
-                    return updatedDto;
-                })
-                .toList();
+        return ids.stream()
+                .map(updatedForecasts::get)
+                .map(forecastMapper::toDto).toList();
     }
 
     @Override
@@ -333,20 +384,52 @@ public class ForecastServiceImpl implements ForecastService {
             throw new BadRequestException("Список ID прогнозов не может быть null или пустым");
         }
 
-        List<Forecast> forecasts = forecastRepository.findAllById(ids);
-        if (forecasts.size() != ids.size()) {
+        List<Integer> distinctIds = ids.stream().distinct().toList();
+        Set<Integer> affectedCityIds = new HashSet<>();
+        int deleted = 0;
+
+        for (List<Integer> chunk : chunks(distinctIds)) {
+            affectedCityIds.addAll(forecastRepository.findCityIdsByIds(chunk));
+            deleted += forecastRepository.deleteByIds(chunk);
+        }
+
+        // Исключение откатывает транзакцию вместе с уже выполненными DELETE
+        if (deleted != distinctIds.size()) {
             throw new ResourceNotFoundException("Некоторые прогнозы не найдены");
         }
 
-        forecasts.forEach(forecast -> {
-            Integer cityId = forecast.getCity().getId();
-            final LocalDate date = forecast.getDate();
+        affectedCityIds.forEach(forecastCache::evictForecastsByCity);
+    }
 
-            forecastRepository.delete(forecast);
+    private CityRegistry.Entry findCity(Integer cityId) {
+        CityRegistry.Entry entry = cityRegistry.find(cityId);
+        if (entry == null) {
+            throw new BadRequestException(cityWithId + cityId + notFound);
+        }
+        return entry;
+    }
 
-            forecastCache.evictSingleForecast(forecast.getId());
-            forecastCache.evictForecastsByCity(cityId);
-            forecastCache.evictForecastsByCityAndDate(cityId, date);
-        });
+    // Существование городов проверяется по справочнику, а для связи с прогнозом
+    // берутся ссылки getReferenceById - без SELECT по таблице городов
+    private Map<Integer, City> findCitiesById(Set<Integer> cityIds) {
+        Map<Integer, CityRegistry.Entry> known = cityRegistry.findAll(cityIds);
+
+        Set<Integer> missingCityIds = cityIds.stream()
+                .filter(id -> !known.containsKey(id))
+                .collect(Collectors.toSet());
+
+        if (!missingCityIds.isEmpty()) {
+            throw new BadRequestException("Города с ID не найдены: " + missingCityIds);
+        }
+        return cityIds.stream()
+                .collect(Collectors.toMap(Function.identity(), cityRepository::getReferenceById));
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += ID_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + ID_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastUpsertResult;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.repository.ForecastKey;
+import com.demo.weatherapi.repository.ForecastUpsertWriter;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ForecastUpsertService {
+    private static final Logger log = LoggerFactory.getLogger(ForecastUpsertService.class);
+
+    private final CityRegistry cityRegistry;
+    private final ForecastUpsertWriter upsertWriter;
+    private final ForecastCache forecastCache;
+
+    public ForecastUpsertService(CityRegistry cityRegistry,
+                                 ForecastUpsertWriter upsertWriter,
+                                 ForecastCache forecastCache) {
+        this.cityRegistry = cityRegistry;
+        this.upsertWriter = upsertWriter;
+        this.forecastCache = forecastCache;
+    }
+
+    /**
+     * Создаёт прогнозы на новые пары (город, дата) и перезаписывает
+     * существующие. Наличие строк не проверяется отдельным запросом -
+     * это решает уникальный индекс (city_id, date) в самой вставке.
+     */
+    @Transactional
+    public ForecastUpsertResult upsert(List<ForecastDto> forecastDtos) {
+        if (forecastDtos == null || forecastDtos.isEmpty()) {
+            throw new BadRequestException("Список прогнозов не может быть null или пустым");
+        }
+
+        Set<ForecastKey> keys = new HashSet<>();
+        Set<Integer> cityIds = new LinkedHashSet<>();
+        for (ForecastDto dto : forecastDtos) {
+            ForecastValidator.validateForInsert(dto);
+            if (!keys.add(new ForecastKey(dto.getCityId(), dto.getDate()))) {
+                throw new BadRequestException(
+                        String.format("Прогноз для города ID %d на дату %s указан несколько раз",
+                                dto.getCityId(),
+                                dto.getDate().format(DateTimeFormatter.ISO_DATE)));
+            }
+            cityIds.add(dto.getCityId());
+        }
+
+        Map<Integer, CityRegistry.Entry> cities = cityRegistry.findAll(cityIds);
+        List<Integer> missingCityIds = cityIds.stream()
+                .filter(id -> !cities.containsKey(id))
+                .toList();
+        if (!missingCityIds.isEmpty()) {
+            throw new BadRequestException("Города с ID не найдены: " + missingCityIds);
+        }
+
+        ForecastUpsertResult result = upsertWriter.upsert(forecastDtos);
+
+        // Город и дата прогноза при upsert не меняются, поэтому достаточно
+        // одного сброса кэша на каждый затронутый город. ForecastCache выполнит
+        // его после коммита, а при откате кэш останется нетронутым
+        cityIds.forEach(forecastCache::evictForecastsByCity);
+
+        log.info("Upserted forecasts: {} created, {} updated",
+                result.getCreated(), result.getUpdated());
+        return result;
+    }
+}
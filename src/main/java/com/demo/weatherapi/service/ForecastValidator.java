@@ -0,0 +1,68 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.exception.BadRequestException;
+
+// Общие правила проверки прогноза для REST-методов и импорта
+public final class ForecastValidator {
+
+    static final int MAX_CONDITION_LENGTH = 100;
+
+    private ForecastValidator() {
+    }
+
+    public static void validate(ForecastDto forecastDto) {
+        if (forecastDto == null || forecastDto.getCityId() == null
+                || forecastDto.getDate() == null) {
+            throw new BadRequestException("Некорректные данные прогноза");
+        }
+
+        if (forecastDto.getTemperatureMin() > forecastDto.getTemperatureMax()) {
+            throw new BadRequestException(
+                "Минимальная температура не может быть выше максимальной");
+        }
+
+        if (forecastDto.getTemperatureMin() < -100) {
+            throw new BadRequestException("Минимальная температура не может быть ниже -100°C");
+        }
+
+        if (forecastDto.getTemperatureMin() > 100) {
+            throw new BadRequestException("Минимальная температура не может быть выше 100°C");
+        }
+
+        if (forecastDto.getTemperatureMax() > 100) {
+            throw new BadRequestException("Максимальная температура не может быть выше 100°C");
+        }
+
+        if (forecastDto.getHumidity() > 100) {
+            throw new BadRequestException(
+                    "Относительная влажность воздуха не может быть больше 100%");
+        }
+
+        if (forecastDto.getHumidity() < 0) {
+            throw new BadRequestException(
+                    "Относительная влажность воздуха не может быть меньше 0%");
+        }
+    }
+
+    // Импорт пишет строки в обход JPA, поэтому дополнительно проверяет
+    // обязательные по схеме БД поля
+    public static void validateForInsert(ForecastDto forecastDto) {
+        if (forecastDto == null || forecastDto.getTemperatureMin() == null
+                || forecastDto.getTemperatureMax() == null
+                || forecastDto.getHumidity() == null || forecastDto.getWindSpeed() == null) {
+            throw new BadRequestException("Некорректные данные прогноза");
+        }
+
+        String condition = forecastDto.getCondition();
+        if (condition == null || condition.isBlank()) {
+            throw new BadRequestException("Описание погодных условий обязательно");
+        }
+        if (condition.length() > MAX_CONDITION_LENGTH) {
+            throw new BadRequestException("Описание погодных условий не должно превышать "
+                    + MAX_CONDITION_LENGTH + " символов");
+        }
+
+        validate(forecastDto);
+    }
+}
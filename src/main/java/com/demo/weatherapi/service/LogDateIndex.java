@@ -0,0 +1,263 @@
+package com.demo.weatherapi.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Индекс лог-файла: для каждой даты хранит диапазон байт от первой до
+ * последней строки этой даты (строки без даты, например стек-трейсы,
+ * относятся к предыдущей записи). Строится инкрементально - при каждом
+ * обновлении дочитывается только дописанный хвост файла - и сохраняется
+ * рядом с логом. Если файл стал короче или изменилось его начало (ротация),
+ * индекс строится заново.
+ */
+final class LogDateIndex {
+    private static final Logger logger = LoggerFactory.getLogger(LogDateIndex.class);
+
+    private static final int MAGIC = 0x4C444931;
+    private static final int DATE_LENGTH = 10;
+    private static final int FINGERPRINT_LENGTH = 256;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path source;
+    private final Path indexFile;
+
+    // Не synchronized: под блокировкой читается файл, а монитор в Java 21
+    // закрепляет виртуальный поток за потоком-носителем на время ввода-вывода
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Range> ranges = new HashMap<>();
+    private long fingerprint;
+    private int fingerprintLength;
+    private long indexedLength;
+    private String currentDate;
+    private boolean loaded;
+
+    LogDateIndex(Path source, Path indexFile) {
+        this.source = source;
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Диапазон даты; contiguous = false, если между строками даты
+     * встречаются строки других дат (например, после перевода часов).
+     */
+    record Range(long start, long end, boolean contiguous) {
+        long length() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Диапазон даты вместе с поколением исходного файла, к которому он
+     * относится. Поколение меняется после ротации, пока в файл только
+     * дописываются строки, остаётся прежним.
+     */
+    record Lookup(Range range, long generation) {
+    }
+
+    Range find(String date) throws IOException {
+        return lookup(date).range();
+    }
+
+    Lookup lookup(String date) throws IOException {
+        lock.lock();
+        try {
+            update();
+            return new Lookup(ranges.get(date), fingerprint);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void update() throws IOException {
+        lock.lock();
+        try {
+            doUpdate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doUpdate() throws IOException {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+
+        long size = Files.size(source);
+        if (size < indexedLength
+                || fingerprintLength > 0 && fingerprint(fingerprintLength) != fingerprint) {
+            logger.info("Log file {} was rotated, rebuilding index", source.getFileName());
+            reset();
+        }
+        if (size > indexedLength) {
+            scan(size);
+            fingerprintLength = (int) Math.min(FINGERPRINT_LENGTH, indexedLength);
+            fingerprint = fingerprint(fingerprintLength);
+            save();
+        }
+    }
+
+    private void scan(long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] data = buffer.array();
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            // Индексируются только завершённые строки: хвост без '\n' дочитаем позже
+            long lineStart = indexedLength;
+            long bufferStart = indexedLength;
+            in.position(bufferStart);
+            while (bufferStart < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, size - bufferStart));
+                int read = in.read(buffer);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (data[i] != '\n') {
+                        continue;
+                    }
+                    long lineEnd = bufferStart + i + 1;
+                    int offset = (int) (lineStart - bufferStart);
+                    // Если начало строки осталось в предыдущем блоке, перечитываем его
+                    String date = offset >= 0
+                            ? dateAt(data, offset, i)
+                            : readDate(in, lineStart);
+                    indexLine(date, lineStart, lineEnd);
+                    lineStart = lineEnd;
+                }
+                bufferStart += read;
+                in.position(bufferStart);
+            }
+            indexedLength = lineStart;
+        }
+    }
+
+    private void indexLine(String date, long lineStart, long lineEnd) {
+        if (date != null && !date.equals(currentDate)) {
+            Range previous = ranges.get(date);
+            ranges.put(date, previous == null
+                    ? new Range(lineStart, lineEnd, true)
+                    : new Range(previous.start(), lineEnd, false));
+            currentDate = date;
+        } else if (currentDate != null) {
+            Range range = ranges.get(currentDate);
+            ranges.put(currentDate, new Range(range.start(), lineEnd, range.contiguous()));
+        }
+    }
+
+    private String readDate(FileChannel in, long position) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(DATE_LENGTH);
+        while (head.hasRemaining() && in.read(head, position + head.position()) > 0) {
+            // дочитываем до DATE_LENGTH байт
+        }
+        return dateAt(head.array(), 0, head.position());
+    }
+
+    private static String dateAt(byte[] data, int from, int limit) {
+        return startsWithDate(data, from, limit)
+                ? new String(data, from, DATE_LENGTH, StandardCharsets.US_ASCII)
+                : null;
+    }
+
+    /**
+     * Начинается ли строка с даты yyyy-MM-dd; остальные строки - продолжение
+     * предыдущей записи.
+     */
+    static boolean startsWithDate(byte[] data, int from, int limit) {
+        if (limit - from < DATE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            byte b = data[from + i];
+            boolean separator = i == 4 || i == 7;
+            if (separator ? b != '-' : b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Хэш первых байт файла: после ротации на месте старого лога появляется новый
+    private long fingerprint(int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && in.read(head, head.position()) > 0) {
+                // дочитываем начало файла
+            }
+        }
+        return Arrays.hashCode(head.array()) * 31L + length;
+    }
+
+    private void reset() {
+        ranges.clear();
+        fingerprint = 0;
+        fingerprintLength = 0;
+        indexedLength = 0;
+        currentDate = null;
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Unexpected index format");
+            }
+            fingerprint = in.readLong();
+            fingerprintLength = in.readInt();
+            indexedLength = in.readLong();
+            currentDate = in.readBoolean() ? in.readUTF() : null;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ranges.put(in.readUTF(),
+                        new Range(in.readLong(), in.readLong(), in.readBoolean()));
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable log index {}", indexFile, e);
+            reset();
+        }
+    }
+
+    private void save() throws IOException {
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(fingerprintLength);
+            out.writeLong(indexedLength);
+            out.writeBoolean(currentDate != null);
+            if (currentDate != null) {
+                out.writeUTF(currentDate);
+            }
+            out.writeInt(ranges.size());
+            for (Map.Entry<String, Range> entry : ranges.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().start());
+                out.writeLong(entry.getValue().end());
+                out.writeBoolean(entry.getValue().contiguous());
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
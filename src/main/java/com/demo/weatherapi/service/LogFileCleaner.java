@@ -0,0 +1,104 @@
+package com.demo.weatherapi.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Удаляет из logs/ извлечённые по датам файлы: старше logs.results.max-age,
+ * а затем самые старые, пока суммарный размер больше logs.results.max-size.
+ * Недописанные временные файлы удаляются только по возрасту.
+ */
+@Component
+public class LogFileCleaner {
+    private static final Logger logger = LoggerFactory.getLogger(LogFileCleaner.class);
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final long maxAgeMillis;
+
+    @Autowired
+    public LogFileCleaner(@Value("${logs.results.max-size:1GB}") DataSize maxSize,
+                          @Value("${logs.results.max-age:24h}") Duration maxAge) {
+        this(Paths.get(LogService.LOG_DIR), maxSize, maxAge);
+    }
+
+    LogFileCleaner(Path directory, DataSize maxSize, Duration maxAge) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSize.toBytes();
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${logs.results.cleanup-interval:10m}",
+            initialDelayString = "${logs.results.cleanup-interval:10m}")
+    public void cleanup() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long expiresBefore = System.currentTimeMillis() - maxAgeMillis;
+        List<ResultFile> results = new ArrayList<>();
+        long totalSize = 0;
+        int deleted = 0;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                LogService.RESULT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean tmp = name.endsWith(LogService.TMP_SUFFIX);
+                if (!tmp && !name.endsWith(LogService.RESULT_SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes =
+                        Files.readAttributes(file, BasicFileAttributes.class);
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (modified < expiresBefore) {
+                    deleted += delete(file) ? 1 : 0;
+                } else if (!tmp) {
+                    results.add(new ResultFile(file, attributes.size(), modified));
+                    totalSize += attributes.size();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to scan {} for extracted log files", directory, e);
+            return;
+        }
+
+        results.sort(Comparator.comparingLong(ResultFile::modified));
+        for (int i = 0; i < results.size() && totalSize > maxSizeBytes; i++) {
+            ResultFile file = results.get(i);
+            if (delete(file.path())) {
+                totalSize -= file.size();
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Removed {} extracted log files, {} bytes left", deleted, totalSize);
+        }
+    }
+
+    private boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete extracted log file {}", file, e);
+            return false;
+        }
+    }
+
+    private record ResultFile(Path path, long size, long modified) {
+    }
+}
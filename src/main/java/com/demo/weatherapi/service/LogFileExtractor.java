@@ -0,0 +1,172 @@
+package com.demo.weatherapi.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Копирует из лог-файла записи заданной даты: строки, начинающиеся с неё, и
+ * следующие за ними строки без даты (стек-трейсы) - так же, как их относит
+ * к дате LogDateIndex, поэтому результат не зависит от того, шли ли строки
+ * даты подряд. Файл читается через FileChannel буфером фиксированного размера,
+ * подряд идущие подходящие строки записываются одним куском, поэтому память
+ * не зависит от размера лога.
+ * Если диапазон даты известен из LogDateIndex, он копируется целиком (copyRange).
+ */
+final class LogFileExtractor {
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    // Кусками, чтобы обновлять прогресс и проверять прерывание
+    private static final long TRANSFER_CHUNK_SIZE = 64L << 20;
+
+    private LogFileExtractor() {
+    }
+
+    /**
+     * Возвращает число записанных байт. progress получает число
+     * просмотренных байт после каждого прочитанного блока.
+     */
+    static long extract(Path source, String date, Path target, LongConsumer progress)
+            throws IOException {
+        return extract(source, date, target, progress, 0, Long.MAX_VALUE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * То же, но просматривает только байты [from, to) исходного файла.
+     */
+    static long extract(Path source, String date, Path target, LongConsumer progress,
+                        long from, long to) throws IOException {
+        return extract(source, date, target, progress, from, to, DEFAULT_BUFFER_SIZE);
+    }
+
+    static long extract(Path source, String date, Path target, LongConsumer progress,
+                        long from, long to, int bufferSize) throws IOException {
+        byte[] prefix = date.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(bufferSize, prefix.length + 1));
+        byte[] data = buffer.array();
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long end = Math.min(to, in.size());
+            long scanned = 0;
+            long written = 0;
+            in.position(from);
+            boolean atLineStart = true;
+            boolean copying = false;
+            boolean eof = false;
+
+            while (!eof) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Extraction interrupted");
+                }
+                buffer.limit((int) Math.min(buffer.capacity(),
+                        buffer.position() + Math.max(0, end - from - scanned)));
+                int read = buffer.hasRemaining() ? in.read(buffer) : -1;
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    scanned += read;
+                }
+                int limit = buffer.position();
+                int pos = 0;
+                int copyFrom = copying && !atLineStart ? 0 : -1;
+
+                while (pos < limit) {
+                    if (atLineStart) {
+                        if (limit - pos < prefix.length && !eof) {
+                            break;
+                        }
+                        // Строка без даты продолжает предыдущую запись
+                        if (LogDateIndex.startsWithDate(data, pos, limit)) {
+                            copying = startsWith(data, pos, limit, prefix);
+                        }
+                        atLineStart = false;
+                        if (copying && copyFrom < 0) {
+                            copyFrom = pos;
+                        } else if (!copying && copyFrom >= 0) {
+                            written += write(out, data, copyFrom, pos);
+                            copyFrom = -1;
+                        }
+                    }
+                    int newline = indexOf(data, pos, limit, (byte) '\n');
+                    if (newline < 0) {
+                        pos = limit;
+                    } else {
+                        pos = newline + 1;
+                        atLineStart = true;
+                    }
+                }
+
+                if (copyFrom >= 0) {
+                    written += write(out, data, copyFrom, pos);
+                }
+                // Непросмотренный хвост (начало строки короче даты) переносим в начало буфера
+                System.arraycopy(data, pos, data, 0, limit - pos);
+                buffer.clear().position(limit - pos);
+                progress.accept(scanned);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Копирует байты [from, to) в новый файл через FileChannel.transferTo,
+     * без промежуточного буфера в куче.
+     */
+    static long copyRange(Path source, long from, long to, Path target, LongConsumer progress)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long copied = 0;
+            while (copied < to - from) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Extraction interrupted");
+                }
+                long chunk = Math.min(TRANSFER_CHUNK_SIZE, to - from - copied);
+                long transferred = in.transferTo(from + copied, chunk, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                copied += transferred;
+                progress.accept(copied);
+            }
+            return copied;
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int from, int limit, byte[] prefix) {
+        if (limit - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] data, int from, int limit, byte value) {
+        for (int i = from; i < limit; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long write(FileChannel out, byte[] data, int from, int to)
+            throws IOException {
+        ByteBuffer chunk = ByteBuffer.wrap(data, from, to - from);
+        while (chunk.hasRemaining()) {
+            out.write(chunk);
+        }
+        return to - from;
+    }
+}
@@ -1,27 +1,28 @@
 package com.demo.weatherapi.service;
 
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.exception.ResourceNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.core.task.TaskExecutor;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 @Getter
@@ -29,18 +30,32 @@ import org.springframework.stereotype.Service;
 @Service
 public class LogService {
     private static final Logger logger = LoggerFactory.getLogger(LogService.class);
-    private static final String LOG_DIR = "logs/";
+    static final String LOG_DIR = "logs/";
+    static final String RESULT_PREFIX = "log-";
+    static final String RESULT_SUFFIX = ".log";
+    static final String TMP_SUFFIX = ".tmp";
+    private static final String SOURCE_LOG_FILE = "app.log";
 
     public static final String STATUS_PROCESSING = "PROCESSING";
     public static final String STATUS_COMPLETED = "COMPLETED";
     public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
     public static final String STATUS_NOT_FOUND = "NOT_FOUND";
 
-    private final Map<String, TaskInfo> tasks = new ConcurrentHashMap<>();
+    // Возвращается для неизвестных задач вместо нового объекта на каждый опрос
+    private static final TaskInfo NOT_FOUND_TASK = new TaskInfo(STATUS_NOT_FOUND, 0);
+
+    private final LogTaskRegistry tasks;
+    // Дата -> выполняющееся извлечение, к которому присоединяются повторные запросы
+    private final Map<String, Extraction> inFlight = new ConcurrentHashMap<>();
     private final TaskExecutor taskExecutor;
+    private final LogDateIndex logIndex = new LogDateIndex(
+            Paths.get(LOG_DIR, SOURCE_LOG_FILE), Paths.get(LOG_DIR, SOURCE_LOG_FILE + ".idx"));
 
-    public LogService(@Qualifier("taskExecutor") TaskExecutor taskExecutor) {
+    public LogService(@Qualifier("taskExecutor") TaskExecutor taskExecutor,
+                      LogTaskRegistry tasks) {
         this.taskExecutor = taskExecutor;
+        this.tasks = tasks;
         createLogsDirectory();
     }
 
@@ -56,96 +71,225 @@ public class LogService {
         }
     }
 
+    /**
+     * Запускает извлечение логов за дату. Повторный запрос той же даты, пока
+     * извлечение выполняется, получает свою задачу, привязанную к нему же.
+     * Готовые файлы именуются по дате, поколению исходного лога и концу
+     * диапазона даты, поэтому совпадающий результат переиспользуется без
+     * повторного чтения лога.
+     */
     public String createLogFileAsync(String date) {
         String taskId = UUID.randomUUID().toString();
         TaskInfo task = new TaskInfo(STATUS_PROCESSING, System.currentTimeMillis());
-        tasks.put(taskId, task);
+        task.setDate(date);
+        tasks.register(taskId, task);
 
-        taskExecutor.execute(() -> {
+        Extraction created = new Extraction(taskId, date);
+        // FutureTask позволяет прервать поток извлечения при отмене последней задачи
+        FutureTask<Void> future = new FutureTask<>(() -> {
             try {
-                Thread.sleep(10000);
-
-                Path logDir = Paths.get(LOG_DIR);
-                if (!Files.exists(logDir)) {
-                    Files.createDirectories(logDir);
-                }
-
-                Path sourceLogPath = Paths.get(LOG_DIR, "app.log");
-                if (!Files.exists(sourceLogPath)) {
-                    throw new IOException("Source log file not found");
-                }
-
-                List<String> filteredLines = Files.lines(sourceLogPath)
-                        .filter(line -> line.startsWith(date))
-                        .toList();
-
-                if (filteredLines.isEmpty()) {
-                    updateTaskStatus(taskId, STATUS_FAILED, "No logs for date");
-                    return;
-                }
-
-                String fileName = "log-" + date + "-" + taskId + ".log";
-                Path targetPath = Paths.get(LOG_DIR, fileName);
-
-                synchronized (this) {
-                    Files.write(targetPath, filteredLines,
-                            StandardOpenOption.CREATE,
-                            StandardOpenOption.WRITE);
-                }
-
-                updateTaskStatus(taskId, STATUS_COMPLETED, fileName);
-
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                updateTaskStatus(taskId, STATUS_FAILED, e.getMessage());
-                logger.error(e.getMessage());
-            } catch (Exception e) {
-                updateTaskStatus(taskId, STATUS_FAILED, e.getMessage());
-                logger.error(e.getMessage());
+                extract(created);
+            } finally {
+                created.close();
+                inFlight.remove(date, created);
+            }
+        }, null);
+        created.future = future;
+        Extraction extraction = inFlight.compute(date, (key, running) -> {
+            if (running != null && running.join(taskId, task)) {
+                return running;
             }
+            created.join(taskId, task);
+            return created;
         });
+        task.setFuture(extraction.future);
+        if (extraction != created) {
+            logger.debug("Task {} joined in-flight log extraction {} for {}",
+                    taskId, extraction.id, date);
+            return taskId;
+        }
+
+        try {
+            taskExecutor.execute(future);
+        } catch (RuntimeException e) {
+            inFlight.remove(date, created);
+            finishAll(created, STATUS_FAILED, e.getMessage());
+            throw e;
+        }
 
         return taskId;
     }
 
+    private void extract(Extraction extraction) {
+        if (extraction.isClosed()) {
+            return;
+        }
+        String date = extraction.date;
+        Path tmpPath = null;
+        try {
+            Path logDir = Paths.get(LOG_DIR);
+            if (!Files.exists(logDir)) {
+                Files.createDirectories(logDir);
+            }
+
+            Path sourceLogPath = Paths.get(LOG_DIR, SOURCE_LOG_FILE);
+            if (!Files.exists(sourceLogPath)) {
+                throw new IOException("Source log file not found");
+            }
+            LogDateIndex.Lookup lookup = logIndex.lookup(date);
+            LogDateIndex.Range range = lookup.range();
+            if (range == null) {
+                finishAll(extraction, STATUS_FAILED, "No logs for date");
+                return;
+            }
+            extraction.setTotalBytes(range.length());
+
+            String fileName = resultFileName(date, lookup.generation(), range.end());
+            Path targetPath = Paths.get(LOG_DIR, fileName);
+            if (Files.exists(targetPath)) {
+                logger.info("Reusing extracted log file {} for extraction {}",
+                        fileName, extraction.id);
+                extraction.setBytesScanned(range.length());
+                finishAll(extraction, STATUS_COMPLETED, fileName);
+                return;
+            }
+
+            // Пишем во временный файл и переименовываем: по имени результата
+            // другие задачи судят о его готовности
+            tmpPath = Paths.get(LOG_DIR, fileName + "." + extraction.id + TMP_SUFFIX);
+            // Строки даты идут подряд - копируем диапазон целиком через transferTo,
+            // иначе фильтруем построчно, но только внутри диапазона
+            long written = range.contiguous()
+                    ? LogFileExtractor.copyRange(sourceLogPath, range.start(), range.end(),
+                            tmpPath, extraction::setBytesScanned)
+                    : LogFileExtractor.extract(sourceLogPath, date, tmpPath,
+                            extraction::setBytesScanned, range.start(), range.end());
+
+            if (written == 0) {
+                Files.deleteIfExists(tmpPath);
+                finishAll(extraction, STATUS_FAILED, "No logs for date");
+                return;
+            }
+            Files.move(tmpPath, targetPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            finishAll(extraction, STATUS_COMPLETED, fileName);
+
+        } catch (Exception e) {
+            deleteQuietly(tmpPath);
+            finishAll(extraction, STATUS_FAILED, e.getMessage());
+            logger.error(e.getMessage());
+        }
+    }
+
+    static String resultFileName(String date, long generation, long end) {
+        return RESULT_PREFIX + date + "-" + Long.toHexString(generation)
+                + "-" + Long.toHexString(end) + RESULT_SUFFIX;
+    }
+
     void updateTaskStatus(String taskId, String status, String messageOrFile) {
         TaskInfo task = tasks.get(taskId);
-        if (task != null) {
-            task.setStatus(status);
-            if (status.equals(STATUS_COMPLETED)) {
-                task.setResultFile(messageOrFile);
-            } else {
-                task.setMessage(messageOrFile);
-            }
-            task.setLastUpdated(System.currentTimeMillis());
+        if (task != null && task.finish(status, messageOrFile)) {
             logger.info("Task {} status updated to {}", taskId, status);
         }
     }
 
+    // Отменённые задачи уже покинули извлечение и свой статус сохраняют
+    private void finishAll(Extraction extraction, String status, String messageOrFile) {
+        extraction.close();
+        extraction.tasks.forEach((taskId, task) -> {
+            if (task.finish(status, messageOrFile)) {
+                logger.info("Task {} status updated to {}", taskId, status);
+            }
+        });
+    }
+
+    /**
+     * Отменяет выполняющуюся задачу. Поток извлечения прерывается, только
+     * когда отменена последняя из присоединённых к нему задач; завершённая
+     * задача удаляется из реестра. Файл результата не удаляется: он может
+     * принадлежать и другим задачам за ту же дату.
+     */
+    public void cancelTask(String taskId) {
+        TaskInfo task = tasks.get(taskId);
+        if (task == null) {
+            throw new ResourceNotFoundException("Задача " + taskId + " не найдена");
+        }
+        if (task.finish(STATUS_CANCELLED, "Task cancelled")) {
+            Extraction extraction = inFlight.get(task.getDate());
+            if (extraction != null && extraction.leave(taskId)) {
+                extraction.future.cancel(true);
+                // Если извлечение отменено до запуска, поток не снимет его с даты сам
+                inFlight.remove(task.getDate(), extraction);
+                logger.info("Log extraction {} cancelled", extraction.id);
+            }
+            logger.info("Task {} cancelled", taskId);
+        } else {
+            tasks.remove(taskId, task);
+        }
+    }
+
+    public Map<String, Object> listTasks() {
+        List<Map.Entry<String, TaskInfo>> entries = new ArrayList<>(tasks.size());
+        tasks.forEach((taskId, task) -> entries.add(Map.entry(taskId, task)));
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<String, TaskInfo> entry) -> entry.getValue().getCreationTime())
+                .reversed());
+
+        List<Map<String, Object>> items = new ArrayList<>(entries.size());
+        for (Map.Entry<String, TaskInfo> entry : entries) {
+            TaskInfo task = entry.getValue();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("taskId", entry.getKey());
+            item.put("date", task.getDate());
+            item.put("status", task.getStatus());
+            item.put("createdAt", new Date(task.getCreationTime()));
+            item.put("lastUpdated", new Date(task.getLastUpdated()));
+            items.add(item);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", items.size());
+        response.put("counts", tasks.countByStatus());
+        response.put("tasks", items);
+        return response;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete partial log file {}", path, e);
+        }
+    }
+
     public TaskInfo getTaskInfo(String taskId) {
-        return tasks.getOrDefault(taskId,
-                new TaskInfo(STATUS_NOT_FOUND, System.currentTimeMillis()));
+        TaskInfo task = tasks.get(taskId);
+        return task != null ? task : NOT_FOUND_TASK;
     }
 
-    public ResponseEntity<Resource> getLogFileStream(String taskId) throws IOException {
+    /**
+     * Путь к готовому файлу задачи. Сама отдача (Range, ETag, сжатие)
+     * выполняется LogFileSender.
+     */
+    public Path getLogFilePath(String taskId) {
         TaskInfo task = tasks.get(taskId);
-        if (task == null || !STATUS_COMPLETED.equals(task.getStatus())) {
-            throw new IOException("Task not ready. Current status: "
-                    + (task != null ? task.getStatus() : "null"));
+        if (task == null) {
+            throw new ResourceNotFoundException("Задача " + taskId + " не найдена");
+        }
+        if (!STATUS_COMPLETED.equals(task.getStatus())) {
+            throw new BadRequestException("Файл ещё не готов, статус задачи: "
+                    + task.getStatus());
         }
 
         Path filePath = Paths.get(LOG_DIR, task.getResultFile());
         if (!Files.exists(filePath)) {
-            throw new IOException("File not found: " + filePath.getFileName());
+            throw new ResourceNotFoundException("Файл " + filePath.getFileName() + " не найден");
         }
-
-        Resource resource = new FileSystemResource(filePath);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + filePath.getFileName() + "\"")
-                .contentType(MediaType.TEXT_PLAIN)
-                .contentLength(Files.size(filePath))
-                .body(resource);
+        return filePath;
     }
 
     public void getLogFileContent(String taskId) throws IOException {
@@ -165,14 +309,19 @@ public class LogService {
 
     public Map<String, Object> getTaskStatus(String taskId) {
         TaskInfo task = getTaskInfo(taskId);
-        Map<String, Object> response = new java.util.LinkedHashMap<>();
+        Map<String, Object> response = new LinkedHashMap<>();
         response.put("taskId", taskId);
         response.put("status", task.getStatus());
+        if (task == NOT_FOUND_TASK) {
+            return response;
+        }
         response.put("createdAt", new Date(task.getCreationTime()));
         response.put("lastUpdated", new Date(task.getLastUpdated()));
 
         if (STATUS_PROCESSING.equals(task.getStatus())) {
             response.put("progress", "File is being processed");
+            response.put("bytesScanned", task.getBytesScanned());
+            response.put("totalBytes", task.getTotalBytes());
         } else if (task.getMessage() != null) {
             response.put("message", task.getMessage());
         } else if (task.getResultFile() != null) {
@@ -182,15 +331,87 @@ public class LogService {
         return response;
     }
 
+    /**
+     * Извлечение логов за дату, общее для всех присоединившихся задач:
+     * прогресс и итоговый статус передаются каждой из них. Закрытое
+     * извлечение (завершённое или покинутое всеми задачами) новых задач
+     * не принимает.
+     */
+    private static final class Extraction {
+        private final String id;
+        private final String date;
+        // Задачи, ещё не отменённые клиентами
+        private final Map<String, TaskInfo> tasks = new ConcurrentHashMap<>();
+        private volatile Future<?> future;
+        private volatile long bytesScanned;
+        private volatile long totalBytes;
+        private boolean closed;
+
+        private Extraction(String id, String date) {
+            this.id = id;
+            this.date = date;
+        }
+
+        private synchronized boolean join(String taskId, TaskInfo task) {
+            if (closed) {
+                return false;
+            }
+            task.setTotalBytes(totalBytes);
+            task.setBytesScanned(bytesScanned);
+            tasks.put(taskId, task);
+            return true;
+        }
+
+        // true, если ушла последняя задача и извлечение больше никому не нужно
+        private synchronized boolean leave(String taskId) {
+            if (tasks.remove(taskId) == null || !tasks.isEmpty() || closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private void setTotalBytes(long totalBytes) {
+            this.totalBytes = totalBytes;
+            tasks.values().forEach(task -> task.setTotalBytes(totalBytes));
+        }
+
+        private void setBytesScanned(long bytesScanned) {
+            this.bytesScanned = bytesScanned;
+            tasks.values().forEach(task -> task.setBytesScanned(bytesScanned));
+        }
+    }
+
     @Getter
     @Setter
-    @AllArgsConstructor
     public static class TaskInfo {
-        private String status;
+        private volatile String status;
         private long creationTime;
-        private long lastUpdated;
-        private String message;
-        private String resultFile;
+        private volatile long lastUpdated;
+        private volatile String message;
+        private volatile String resultFile;
+        private String date;
+        private volatile Future<?> future;
+        // Обновляются потоком извлечения, читаются при опросе статуса
+        private volatile long bytesScanned;
+        private volatile long totalBytes;
+
+        public TaskInfo(String status, long creationTime, long lastUpdated,
+                        String message, String resultFile) {
+            this.status = status;
+            this.creationTime = creationTime;
+            this.lastUpdated = lastUpdated;
+            this.message = message;
+            this.resultFile = resultFile;
+        }
 
         public TaskInfo(String status, long creationTime) {
             this(status, creationTime, creationTime, null, null);
@@ -205,5 +426,27 @@ public class LogService {
             this.resultFile = resultFile;
             this.lastUpdated = System.currentTimeMillis();
         }
+
+        public boolean isFinished() {
+            return !STATUS_PROCESSING.equals(status);
+        }
+
+        /**
+         * Переводит задачу в итоговый статус, если она ещё выполняется.
+         * Блокировка на уровне задачи: отмена и завершение не затирают друг друга.
+         */
+        synchronized boolean finish(String newStatus, String messageOrFile) {
+            if (isFinished()) {
+                return false;
+            }
+            if (STATUS_COMPLETED.equals(newStatus)) {
+                resultFile = messageOrFile;
+            } else {
+                message = messageOrFile;
+            }
+            lastUpdated = System.currentTimeMillis();
+            status = newStatus;
+            return true;
+        }
     }
 }
\ No newline at end of file
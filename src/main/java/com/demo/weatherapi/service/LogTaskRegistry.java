@@ -0,0 +1,122 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.exception.TooManyRequestsException;
+import com.demo.weatherapi.service.LogService.TaskInfo;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Реестр задач извлечения логов. Завершённые задачи хранятся logs.tasks.ttl
+ * после последнего обновления, число задач ограничено logs.tasks.max-size:
+ * при заполнении сначала удаляются просроченные, затем самые давние
+ * завершённые задачи. Выполняющиеся задачи не вытесняются - если место
+ * занято только ими, новая задача отклоняется. Общей блокировки нет, поэтому
+ * при одновременной регистрации лимит может быть превышен на число потоков.
+ */
+@Component
+public class LogTaskRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(LogTaskRegistry.class);
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final ConcurrentHashMap<String, TaskInfo> tasks = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LogTaskRegistry(@Value("${logs.tasks.max-size:1000}") int maxSize,
+                           @Value("${logs.tasks.ttl:1h}") Duration ttl) {
+        this(maxSize, ttl, System::currentTimeMillis);
+    }
+
+    LogTaskRegistry(int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    public void register(String taskId, TaskInfo task) {
+        if (tasks.size() >= maxSize) {
+            evict();
+            if (tasks.size() >= maxSize) {
+                throw new TooManyRequestsException(
+                        "Слишком много выполняющихся задач, повторите позже",
+                        RETRY_AFTER_SECONDS);
+            }
+        }
+        tasks.put(taskId, task);
+    }
+
+    public TaskInfo get(String taskId) {
+        return tasks.get(taskId);
+    }
+
+    public boolean remove(String taskId, TaskInfo task) {
+        return tasks.remove(taskId, task);
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public void forEach(BiConsumer<String, TaskInfo> action) {
+        tasks.forEach(action);
+    }
+
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (TaskInfo task : tasks.values()) {
+            counts.merge(task.getStatus(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @Scheduled(fixedDelayString = "${logs.tasks.purge-interval:1m}",
+            initialDelayString = "${logs.tasks.purge-interval:1m}")
+    public void purgeExpired() {
+        long expiredBefore = clock.getAsLong() - ttlMillis;
+        int before = tasks.size();
+        tasks.values().removeIf(task -> task.isFinished()
+                && task.getLastUpdated() < expiredBefore);
+        int removed = before - tasks.size();
+        if (removed > 0) {
+            logger.debug("Purged {} expired log tasks", removed);
+        }
+    }
+
+    // Вызывается только при заполненном реестре, поэтому сортировка допустима
+    private void evict() {
+        purgeExpired();
+        int excess = tasks.size() - maxSize + 1;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, TaskInfo>> finished = new ArrayList<>();
+        for (Map.Entry<String, TaskInfo> entry : tasks.entrySet()) {
+            if (entry.getValue().isFinished()) {
+                finished.add(entry);
+            }
+        }
+        finished.sort(Comparator.comparingLong(entry -> entry.getValue().getLastUpdated()));
+        for (int i = 0; i < finished.size() && i < excess; i++) {
+            tasks.remove(finished.get(i).getKey(), finished.get(i).getValue());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.demo.weatherapi.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Счётчик событий в скользящем окне: кольцевой буфер из slotCount слотов
+ * длительностью slotDuration. Слот помечается номером интервала; устаревший
+ * слот обнуляется первым потоком, попавшим в него в новом интервале.
+ * Инкременты, совпавшие с обнулением, могут потеряться - для статистики
+ * посещений такая погрешность на границе слота допустима.
+ */
+final class RollingCounter {
+
+    private final long slotNanos;
+    private final int slotCount;
+    private final LongAdder[] counts;
+    private final AtomicLongArray slotEpochs;
+    private final LongSupplier ticker;
+
+    RollingCounter(Duration slotDuration, int slotCount, LongSupplier ticker) {
+        this.slotNanos = slotDuration.toNanos();
+        this.slotCount = slotCount;
+        this.counts = new LongAdder[slotCount];
+        this.slotEpochs = new AtomicLongArray(slotCount);
+        this.ticker = ticker;
+        for (int i = 0; i < slotCount; i++) {
+            counts[i] = new LongAdder();
+        }
+        reset();
+    }
+
+    void increment() {
+        long epoch = currentEpoch();
+        int slot = slotOf(epoch);
+        long slotEpoch = slotEpochs.get(slot);
+        if (slotEpoch < epoch && slotEpochs.compareAndSet(slot, slotEpoch, epoch)) {
+            counts[slot].reset();
+        }
+        counts[slot].increment();
+    }
+
+    // Сумма за последние slots слотов, включая текущий (незавершённый)
+    long sum(int slots) {
+        long epoch = currentEpoch();
+        long sum = 0;
+        for (int i = 0; i < Math.min(slots, slotCount); i++) {
+            int slot = slotOf(epoch - i);
+            if (slotEpochs.get(slot) == epoch - i) {
+                sum += counts[slot].sum();
+            }
+        }
+        return sum;
+    }
+
+    void reset() {
+        for (int i = 0; i < slotCount; i++) {
+            slotEpochs.set(i, Long.MIN_VALUE);
+            counts[i].reset();
+        }
+    }
+
+    private long currentEpoch() {
+        return ticker.getAsLong() / slotNanos;
+    }
+
+    private int slotOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) slotCount);
+    }
+}
@@ -1,33 +1,242 @@
 package com.demo.weatherapi.service;
 
+import com.demo.weatherapi.dto.VisitStats;
+import com.demo.weatherapi.dto.VisitStats.RouteVisits;
+import com.demo.weatherapi.dto.VisitStats.WindowRate;
+import com.demo.weatherapi.exception.BadRequestException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Счётчики посещений по маршрутам. Число отслеживаемых маршрутов ограничено
+ * (алгоритм Space-Saving): когда места нет, новый маршрут вытесняет маршрут
+ * с наименьшим счётчиком и наследует его значение как погрешность. Частые
+ * маршруты при этом остаются в таблице, а длинный хвост не растит память.
+ * Помимо итоговых счётчиков ведутся скользящие окна по минутам и часам.
+ * Приращения с момента последней выгрузки забирает VisitStatsService
+ * (drainUnflushed) и сохраняет в БД, сам инкремент к БД не обращается.
+ */
 @Service
 public class VisitCounterService {
-    private final ConcurrentHashMap<String, AtomicInteger> visitCounters
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int HOURS_PER_DAY = 24;
+
+    // LongAdder распределяет инкременты по ячейкам, поэтому потоки,
+    // считающие один и тот же популярный URL, не конкурируют за одну переменную
+    private final ConcurrentHashMap<String, RouteCounter> visitCounters
             = new ConcurrentHashMap<>();
+    private final LongAdder totalVisits = new LongAdder();
+    // Невыгруженные приращения маршрутов, вытесненных из таблицы
+    // или не записанных в БД из-за ошибки; ждут следующей выгрузки
+    private final Map<String, Long> carriedDeltas = new HashMap<>();
+    private long flushedTotal;
+    private final RollingCounter visitsByMinute;
+    private final RollingCounter visitsByHour;
+    private final int maxTrackedRoutes;
+    private final LongSupplier ticker;
+
+    @Autowired
+    public VisitCounterService(@Value("${visits.max-tracked-routes:1000}") int maxTrackedRoutes) {
+        this(maxTrackedRoutes, System::nanoTime);
+    }
+
+    VisitCounterService(int maxTrackedRoutes, LongSupplier ticker) {
+        if (maxTrackedRoutes <= 0) {
+            throw new IllegalArgumentException("maxTrackedRoutes must be positive");
+        }
+        this.maxTrackedRoutes = maxTrackedRoutes;
+        this.ticker = ticker;
+        this.visitsByMinute = new RollingCounter(MINUTE, MINUTES_PER_HOUR, ticker);
+        this.visitsByHour = new RollingCounter(HOUR, HOURS_PER_DAY, ticker);
+    }
 
     public void incrementVisit(String url) {
-        visitCounters.computeIfAbsent(url, k -> new AtomicInteger(0)).incrementAndGet();
+        totalVisits.increment();
+        visitsByMinute.increment();
+        visitsByHour.increment();
+
+        RouteCounter counter = visitCounters.get(url);
+        if (counter == null) {
+            counter = track(url);
+        }
+        counter.increment();
     }
 
-    public int getVisitCount(String url) {
-        return visitCounters.getOrDefault(url, new AtomicInteger(0)).get();
+    public long getVisitCount(String url) {
+        RouteCounter counter = visitCounters.get(url);
+        return counter != null ? counter.count() : 0;
     }
 
-    public Map<String, Integer> getAllVisits() {
-        return visitCounters.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> e.getValue().get()
-                ));
+    public VisitStats getStats(int topSize) {
+        if (topSize <= 0) {
+            throw new BadRequestException("Размер топа должен быть положительным");
+        }
+
+        // Куча на topSize элементов вместо копии и сортировки всей таблицы
+        PriorityQueue<RouteSnapshot> top = new PriorityQueue<>(
+                Comparator.comparingLong(RouteSnapshot::count));
+        for (Map.Entry<String, RouteCounter> entry : visitCounters.entrySet()) {
+            long count = entry.getValue().count();
+            if (top.size() < topSize) {
+                top.add(new RouteSnapshot(entry.getKey(), entry.getValue(), count));
+            } else if (count > top.peek().count()) {
+                top.poll();
+                top.add(new RouteSnapshot(entry.getKey(), entry.getValue(), count));
+            }
+        }
+
+        List<RouteVisits> topRoutes = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            RouteSnapshot route = top.poll();
+            RouteCounter counter = route.counter();
+            topRoutes.add(new RouteVisits(route.route(), route.count(), counter.error,
+                    counter.window.sum(1), counter.window.sum(MINUTES_PER_HOUR)));
+        }
+        topRoutes.sort(Comparator.comparingLong(RouteVisits::visits).reversed());
+
+        List<WindowRate> windows = List.of(
+                windowRate("1m", visitsByMinute.sum(1), MINUTE),
+                windowRate("5m", visitsByMinute.sum(5), MINUTE.multipliedBy(5)),
+                windowRate("1h", visitsByMinute.sum(MINUTES_PER_HOUR), HOUR),
+                windowRate("24h", visitsByHour.sum(HOURS_PER_DAY), HOUR.multipliedBy(24)));
+
+        return new VisitStats(totalVisits.sum(), visitCounters.size(), windows, topRoutes);
     }
 
-    public void resetCounters() {
+    public synchronized void resetCounters() {
         visitCounters.clear();
+        totalVisits.reset();
+        visitsByMinute.reset();
+        visitsByHour.reset();
+        carriedDeltas.clear();
+        flushedTotal = 0;
+    }
+
+    /**
+     * Возвращает посещения по маршрутам, накопленные с прошлой выгрузки,
+     * и отмечает их выгруженными. При ошибке записи их нужно вернуть
+     * через restoreUnflushed.
+     */
+    public synchronized Map<String, Long> drainUnflushed() {
+        Map<String, Long> deltas = new HashMap<>(carriedDeltas);
+        carriedDeltas.clear();
+        for (Map.Entry<String, RouteCounter> entry : visitCounters.entrySet()) {
+            long delta = entry.getValue().drain();
+            if (delta > 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            }
+        }
+        deltas.values().forEach(delta -> flushedTotal += delta);
+        return deltas;
+    }
+
+    public synchronized void restoreUnflushed(Map<String, Long> deltas) {
+        deltas.forEach(this::carry);
+        deltas.values().forEach(delta -> flushedTotal -= delta);
+    }
+
+    public synchronized long getUnflushedCount(String url) {
+        RouteCounter counter = visitCounters.get(url);
+        long pending = counter != null ? counter.unflushed() : 0;
+        return pending + carriedDeltas.getOrDefault(url, 0L);
+    }
+
+    public synchronized long getUnflushedTotal() {
+        return totalVisits.sum() - flushedTotal;
+    }
+
+    // Space-Saving: при заполнении таблицы новый маршрут занимает место
+    // маршрута с наименьшим счётчиком. Сюда попадают только первые визиты
+    // маршрута, поэтому линейный поиск минимума под блокировкой допустим
+    private synchronized RouteCounter track(String url) {
+        RouteCounter counter = visitCounters.get(url);
+        if (counter != null) {
+            return counter;
+        }
+
+        long inherited = 0;
+        if (visitCounters.size() >= maxTrackedRoutes) {
+            String victim = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<String, RouteCounter> entry : visitCounters.entrySet()) {
+                long count = entry.getValue().count();
+                if (count < minCount) {
+                    minCount = count;
+                    victim = entry.getKey();
+                }
+            }
+            if (victim != null) {
+                carry(victim, visitCounters.remove(victim).drain());
+                inherited = minCount;
+            }
+        }
+
+        counter = new RouteCounter(inherited,
+                new RollingCounter(MINUTE, MINUTES_PER_HOUR, ticker));
+        visitCounters.put(url, counter);
+        return counter;
+    }
+
+    // Размер carriedDeltas ограничен так же, как таблица маршрутов: при долгой
+    // недоступности БД приращения новых маршрутов сверх лимита отбрасываются
+    private void carry(String url, long delta) {
+        if (delta > 0 && (carriedDeltas.containsKey(url)
+                || carriedDeltas.size() < maxTrackedRoutes)) {
+            carriedDeltas.merge(url, delta, Long::sum);
+        }
+    }
+
+    // Окно включает текущий незавершённый слот, поэтому частота слегка занижена
+    private static WindowRate windowRate(String name, long visits, Duration window) {
+        return new WindowRate(name, visits, (double) visits / window.toSeconds());
+    }
+
+    private record RouteSnapshot(String route, RouteCounter counter, long count) {
+    }
+
+    private static final class RouteCounter {
+        private final LongAdder visits = new LongAdder();
+        private final long error;
+        private final RollingCounter window;
+        // Пишется только под монитором VisitCounterService
+        private long flushed;
+
+        private RouteCounter(long error, RollingCounter window) {
+            this.error = error;
+            this.window = window;
+        }
+
+        private void increment() {
+            visits.increment();
+            window.increment();
+        }
+
+        private long count() {
+            return error + visits.sum();
+        }
+
+        private long unflushed() {
+            return visits.sum() - flushed;
+        }
+
+        private long drain() {
+            long sum = visits.sum();
+            long delta = sum - flushed;
+            flushed = sum;
+            return delta;
+        }
     }
-}
\ No newline at end of file
+}
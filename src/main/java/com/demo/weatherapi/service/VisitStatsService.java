@@ -0,0 +1,113 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.VisitStats;
+import com.demo.weatherapi.dto.VisitStats.RouteVisits;
+import com.demo.weatherapi.model.VisitCount;
+import com.demo.weatherapi.repository.VisitCountRepository;
+import com.demo.weatherapi.repository.VisitCountWriter;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Сохраняет счётчики посещений в таблицу visit_counts (write-behind):
+ * по расписанию забирает накопленные в памяти приращения и прибавляет их
+ * к сохранённым значениям. Статистика складывает сохранённые итоги всех
+ * экземпляров приложения с ещё не выгруженными приращениями этого экземпляра.
+ */
+@Service
+public class VisitStatsService {
+    private static final Logger log = LoggerFactory.getLogger(VisitStatsService.class);
+
+    private final VisitCounterService visitCounterService;
+    private final VisitCountRepository visitCountRepository;
+    private final VisitCountWriter visitCountWriter;
+    private final int batchSize;
+
+    public VisitStatsService(VisitCounterService visitCounterService,
+                             VisitCountRepository visitCountRepository,
+                             VisitCountWriter visitCountWriter,
+                             @Value("${visits.flush-batch-size:500}") int batchSize) {
+        this.visitCounterService = visitCounterService;
+        this.visitCountRepository = visitCountRepository;
+        this.visitCountWriter = visitCountWriter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${visits.flush-interval:10s}",
+            initialDelayString = "${visits.flush-interval:10s}")
+    public void flush() {
+        Map<String, Long> deltas = visitCounterService.drainUnflushed();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            visitCountWriter.addVisits(deltas, batchSize);
+            log.debug("Flushed visit counters for {} routes", deltas.size());
+        } catch (DataAccessException e) {
+            visitCounterService.restoreUnflushed(deltas);
+            log.warn("Failed to flush visit counters for {} routes, will retry",
+                    deltas.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    @Transactional(readOnly = true)
+    public VisitStats getStats(int topSize) {
+        VisitStats local = visitCounterService.getStats(topSize);
+
+        Map<String, Long> persisted = new HashMap<>();
+        visitCountRepository.findAllByOrderByVisitsDesc(Limit.of(topSize))
+                .forEach(count -> persisted.put(count.getRoute(), count.getVisits()));
+        Set<String> missing = new HashSet<>();
+        for (RouteVisits route : local.getTopRoutes()) {
+            if (!persisted.containsKey(route.route())) {
+                missing.add(route.route());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (VisitCount count : visitCountRepository.findAllById(missing)) {
+                persisted.put(count.getRoute(), count.getVisits());
+            }
+        }
+
+        Map<String, RouteVisits> localRoutes = new HashMap<>();
+        local.getTopRoutes().forEach(route -> localRoutes.put(route.route(), route));
+        Set<String> candidates = new HashSet<>(persisted.keySet());
+        candidates.addAll(localRoutes.keySet());
+
+        List<RouteVisits> topRoutes = new ArrayList<>(candidates.size());
+        for (String route : candidates) {
+            long visits = persisted.getOrDefault(route, 0L)
+                    + visitCounterService.getUnflushedCount(route);
+            RouteVisits localRoute = localRoutes.get(route);
+            topRoutes.add(localRoute != null
+                    ? new RouteVisits(route, visits, localRoute.error(),
+                            localRoute.lastMinute(), localRoute.lastHour())
+                    : new RouteVisits(route, visits, 0, 0, 0));
+        }
+        topRoutes.sort(Comparator.comparingLong(RouteVisits::visits).reversed());
+
+        long totalVisits = visitCountRepository.sumVisits()
+                + visitCounterService.getUnflushedTotal();
+        return new VisitStats(totalVisits, local.getTrackedRoutes(), local.getWindows(),
+                topRoutes.subList(0, Math.min(topSize, topRoutes.size())));
+    }
+}
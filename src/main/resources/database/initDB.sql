@@ -15,7 +15,27 @@ CREATE TABLE IF NOT EXISTS forecasts (
     humidity     DOUBLE PRECISION NOT NULL,
     wind_speed   DOUBLE PRECISION NOT NULL
 );
-CREATE SEQUENCE IF NOT EXISTS forecast_id_seq START 1 INCREMENT 1;
+CREATE SEQUENCE IF NOT EXISTS forecast_id_seq START 1 INCREMENT 50;
+-- Шаг должен совпадать с allocationSize в Forecast (оптимизатор pooled-lo)
+ALTER SEQUENCE forecast_id_seq INCREMENT BY 50;
+
+-- Один прогноз на город и дату; на этот индекс опираются create/update
+-- и INSERT ... ON CONFLICT в ForecastUpsertWriter. Если в существующей базе
+-- уже есть дубликаты (city_id, date), индекс не создастся и приложение не
+-- запустится: их нужно убрать разовой миграцией
+-- database/migrations/dedupe_forecasts_city_date.sql (см. README)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_forecasts_city_id_date ON forecasts (city_id, date);
+DROP INDEX IF EXISTS idx_forecasts_city_id_date;
+CREATE INDEX IF NOT EXISTS idx_forecasts_date ON forecasts (date);
+CREATE INDEX IF NOT EXISTS idx_forecasts_temperature_min ON forecasts (temperature_min);
+CREATE INDEX IF NOT EXISTS idx_forecasts_temperature_max ON forecasts (temperature_max);
+CREATE INDEX IF NOT EXISTS idx_cities_lower_name ON cities (LOWER(name));
+
+CREATE TABLE IF NOT EXISTS visit_counts (
+    route  VARCHAR(2048) PRIMARY KEY,
+    visits BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_visit_counts_visits ON visit_counts (visits DESC);
 
 -- DROP TABLE IF EXISTS forecasts;
 -- DROP SEQUENCE IF EXISTS forecast_id_seq;
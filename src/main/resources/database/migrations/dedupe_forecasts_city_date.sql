@@ -0,0 +1,30 @@
+-- Разовая миграция перед первым запуском с уникальным индексом
+-- uq_forecasts_city_id_date на базе, где уже есть несколько прогнозов на один
+-- город и дату. Приложение её не выполняет, запускать вручную:
+--   psql -v ON_ERROR_STOP=1 -d <база> -f dedupe_forecasts_city_date.sql
+-- Из дубликатов (city_id, date) остаётся прогноз с наибольшим id, удалённые
+-- строки копируются в forecasts_duplicates. Повторный запуск ничего не меняет.
+BEGIN;
+
+-- Новые дубликаты не должны появиться между удалением и созданием индекса
+LOCK TABLE forecasts IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE IF NOT EXISTS forecasts_duplicates (
+    LIKE forecasts,
+    removed_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+WITH removed AS (
+    DELETE FROM forecasts older
+    USING forecasts newer
+    WHERE older.city_id = newer.city_id
+      AND older.date = newer.date
+      AND older.id < newer.id
+    RETURNING older.*
+)
+INSERT INTO forecasts_duplicates
+SELECT removed.*, now() FROM removed;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_forecasts_city_id_date ON forecasts (city_id, date);
+
+COMMIT;
@@ -0,0 +1,58 @@
+package com.demo.weatherapi.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class LoggingAspectTest {
+
+    @Test
+    void abbreviate_ShouldTruncateLongValues() {
+        String abbreviated = LoggingAspect.abbreviate("x".repeat(1000), 10);
+
+        assertThat(abbreviated).isEqualTo("xxxxxxxxxx...");
+    }
+
+    @Test
+    void abbreviate_ShouldRenderOnlyHeadOfLargeCollection() {
+        List<Integer> values = IntStream.range(0, 100_000).boxed().toList();
+
+        String abbreviated = LoggingAspect.abbreviate(new Object[]{values}, 30);
+
+        assertThat(abbreviated).startsWith("[(size=100000)[0, 1, 2").hasSize(33);
+    }
+
+    @Test
+    void abbreviate_ShouldKeepShortValuesIntact() {
+        assertThat(LoggingAspect.abbreviate(new Object[]{1, "Минск", null}, 100))
+                .isEqualTo("[1, Минск, null]");
+    }
+
+    @Test
+    void trace_ShouldOnlyProceedWhenDisabled() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(false, 1.0, 100, Duration.ofSeconds(1));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.trace(joinPoint)).isEqualTo("result");
+        verify(joinPoint).proceed();
+        verifyNoMoreInteractions(joinPoint);
+    }
+
+    @Test
+    void trace_ShouldReturnResultWhenNotSampled() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(true, 0, 100, Duration.ofSeconds(1));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.trace(joinPoint)).isEqualTo("result");
+        verify(joinPoint, never()).getArgs();
+        verify(joinPoint, never()).getSignature();
+    }
+}
@@ -0,0 +1,152 @@
+package com.demo.weatherapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void get_ShouldCountHitsAndMisses() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, null, 1, v -> 1, (k, v) -> { }, now::get);
+
+        cache.put(1, "one");
+
+        assertThat(cache.get(1)).isEqualTo("one");
+        assertThat(cache.get(2)).isNull();
+        CacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedEntry() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, null, 1, v -> 1, (k, v) -> { }, now::get);
+
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertThat(cache.get(1)).isEqualTo("one");
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(3)).isEqualTo("three");
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldRespectMaxWeight() {
+        BoundedCache<String, List<Integer>> cache =
+                new BoundedCache<>(5, null, 1, List::size, (k, v) -> { }, now::get);
+
+        cache.put("a", List.of(1, 2, 3));
+        cache.put("b", List.of(1, 2, 3));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).hasSize(3);
+        assertThat(cache.stats().weight()).isEqualTo(3);
+    }
+
+    @Test
+    void put_ShouldSkipValuesHeavierThanCache() {
+        BoundedCache<String, List<Integer>> cache =
+                new BoundedCache<>(2, null, 1, List::size, (k, v) -> { }, now::get);
+
+        cache.put("a", List.of(1, 2, 3));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void put_ShouldEvictPreviousValueWhenNewValueIsTooHeavy() {
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, List<Integer>> cache = new BoundedCache<>(
+                2, null, 1, List::size, (k, v) -> evicted.add(k + "=" + v), now::get);
+
+        cache.put("a", List.of(1));
+        assertThat(cache.fits(List.of(1, 2, 3))).isFalse();
+
+        assertThat(cache.put("a", List.of(1, 2, 3))).isNull();
+        assertThat(cache.get("a")).isNull();
+        assertThat(evicted).containsExactly("a=[1]");
+        assertThat(cache.stats().weight()).isZero();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldExpireEntriesAfterTtl() {
+        BoundedCache<Integer, String> cache =
+                new BoundedCache<>(10, Duration.ofSeconds(5), 1, v -> 1, (k, v) -> { }, now::get);
+
+        cache.put(1, "one");
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(cache.get(1)).isEqualTo("one");
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void put_ShouldNotifyListenerAboutEvictedEntries() {
+        List<Integer> evicted = new ArrayList<>();
+        BoundedCache<Integer, String> cache =
+                new BoundedCache<>(1, null, 1, v -> 1, (k, v) -> evicted.add(k), now::get);
+
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.remove(2);
+
+        assertThat(evicted).containsExactly(1);
+    }
+
+    @Test
+    void removeIf_ShouldRemoveMatchingEntries() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, null, 4, v -> 1, (k, v) -> { }, now::get);
+        for (int i = 0; i < 6; i++) {
+            cache.put(i, i % 2 == 0 ? "even" : "odd");
+        }
+
+        int removed = cache.removeIf((key, value) -> value.equals("odd"));
+
+        assertThat(removed).isEqualTo(3);
+        assertThat(cache.stats().size()).isEqualTo(3);
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(2)).isEqualTo("even");
+    }
+
+    @Test
+    void concurrentPuts_ShouldKeepCacheBounded() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(64, null, 8, v -> 1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        for (int t = 0; t < 16; t++) {
+            int offset = t * 10_000;
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    cache.put(offset + i, i);
+                    cache.get(offset + i / 2);
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isLessThanOrEqualTo(64);
+        assertThat(stats.hits() + stats.misses()).isEqualTo(160_000);
+    }
+}
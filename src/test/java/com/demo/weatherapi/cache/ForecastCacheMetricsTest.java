@@ -0,0 +1,62 @@
+package com.demo.weatherapi.cache;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastCacheMetricsTest {
+
+    private ForecastCache forecastCache;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        forecastCache = new ForecastCache(2, 100, Duration.ofMinutes(10), 1);
+        registry = new SimpleMeterRegistry();
+        new ForecastCacheMetrics(forecastCache).bindTo(registry);
+    }
+
+    @Test
+    void bindTo_ShouldExposeHitsMissesAndSizePerRegion() {
+        forecastCache.cacheSingleForecast(forecast(1));
+        forecastCache.getForecastById(1);
+        forecastCache.getForecastById(2);
+        forecastCache.cacheForecastsByCityId(1, List.of(forecast(1), forecast(3)));
+
+        assertThat(gets(ForecastCacheMetrics.REGION_SINGLE, "hit")).isEqualTo(1.0);
+        assertThat(gets(ForecastCacheMetrics.REGION_SINGLE, "miss")).isEqualTo(1.0);
+        assertThat(registry.get("cache.size")
+                .tag("cache", ForecastCacheMetrics.REGION_SINGLE).gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("cache.weight")
+                .tag("cache", ForecastCacheMetrics.REGION_LIST).gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void bindTo_ShouldCountEvictions() {
+        for (int id = 1; id <= 5; id++) {
+            forecastCache.cacheSingleForecast(forecast(id));
+        }
+
+        assertThat(registry.get("cache.evictions")
+                .tag("cache", ForecastCacheMetrics.REGION_SINGLE)
+                .functionCounter().count()).isEqualTo(3.0);
+    }
+
+    private double gets(String region, String result) {
+        return registry.get("cache.gets")
+                .tag("cache", region)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static ForecastDto forecast(int id) {
+        return new ForecastDto(id, 1, LocalDate.of(2025, 5, 11), 1.0, 5.0, 70.0, 3.0);
+    }
+}
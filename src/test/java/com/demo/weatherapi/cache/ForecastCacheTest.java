@@ -0,0 +1,208 @@
+package com.demo.weatherapi.cache;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 11);
+
+    private ForecastCache forecastCache;
+
+    @BeforeEach
+    void setUp() {
+        forecastCache = new ForecastCache(200_000, 200_000, Duration.ofMinutes(10), 16);
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldRemoveOnlyEntriesOfThatCity() {
+        for (int id = 1; id <= 100_000; id++) {
+            forecastCache.cacheSingleForecast(forecast(id, 2 + id % 50));
+        }
+        forecastCache.cacheSingleForecast(forecast(100_001, 1));
+        forecastCache.cacheForecastsByCityId(1, List.of(forecast(100_001, 1)));
+        forecastCache.cacheForecastsByCityId(12, List.of(forecast(12, 12)));
+
+        forecastCache.evictForecastsByCity(1);
+
+        assertThat(forecastCache.getForecastById(100_001)).isNull();
+        assertThat(forecastCache.getForecastsByCityId(1)).isNull();
+        assertThat(forecastCache.getForecastsByCityId(12)).hasSize(1);
+        assertThat(forecastCache.getForecastById(42)).isNotNull();
+        assertThat(forecastCache.getSingleForecastStats().size()).isEqualTo(100_000);
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldFollowForecastMovedToAnotherCity() {
+        forecastCache.cacheSingleForecast(forecast(5, 1));
+        forecastCache.cacheSingleForecast(forecast(5, 2));
+
+        forecastCache.evictForecastsByCity(1);
+        assertThat(forecastCache.getForecastById(5)).isNotNull();
+
+        forecastCache.evictForecastsByCity(2);
+        assertThat(forecastCache.getForecastById(5)).isNull();
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldRemoveNameBasedEntriesOfResolvedCities() {
+        forecastCache.cacheForecastsByName("Minsk", "Belarus", List.of(1), List.of(forecast(1, 1)));
+        forecastCache.cacheForecastsByNameAndDate("Minsk", DATE, List.of(1, 3), List.of());
+        forecastCache.cacheForecastsByName("Brest", "Belarus", List.of(2), List.of(forecast(2, 2)));
+
+        forecastCache.evictForecastsByCity(3);
+
+        assertThat(forecastCache.getForecastsByNameAndDate("Minsk", DATE)).isNull();
+        assertThat(forecastCache.getForecastsByName("Minsk", "Belarus")).hasSize(1);
+
+        forecastCache.evictForecastsByCity(1);
+
+        assertThat(forecastCache.getForecastsByName("Minsk", "Belarus")).isNull();
+        assertThat(forecastCache.getForecastsByName("Brest", "Belarus")).hasSize(1);
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldFindListReplacedWithSharedCity() {
+        forecastCache.cacheForecastsByName("Minsk", "Belarus", List.of(1, 2), List.of());
+        forecastCache.cacheForecastsByName("Minsk", "Belarus", List.of(1), List.of());
+
+        forecastCache.evictForecastsByCity(1);
+
+        assertThat(forecastCache.getForecastsByName("Minsk", "Belarus")).isNull();
+    }
+
+    @Test
+    void cacheForecastsByCityId_ShouldDropPreviousListWhenNewOneIsTooHeavy() {
+        ForecastCache smallCache = new ForecastCache(10, 2, Duration.ofMinutes(10), 1);
+        smallCache.cacheForecastsByCityId(1, List.of());
+
+        smallCache.cacheForecastsByCityId(1, List.of(forecast(1, 1), forecast(2, 1)));
+
+        assertThat(smallCache.getForecastsByCityId(1)).isNull();
+        assertThat(smallCache.getListForecastStats().weight()).isZero();
+    }
+
+    @Test
+    void evictForecastsByCityAndDate_ShouldKeepOtherDates() {
+        forecastCache.cacheForecastsByNameAndDate("Minsk", DATE, List.of(1), List.of());
+        forecastCache.cacheForecastsByNameAndDate("Minsk", DATE.plusDays(1), List.of(1), List.of());
+
+        forecastCache.evictForecastsByCityAndDate(1, DATE);
+
+        assertThat(forecastCache.getForecastsByNameAndDate("Minsk", DATE)).isNull();
+        assertThat(forecastCache.getForecastsByNameAndDate("Minsk", DATE.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void cacheForecastsByName_ShouldSkipUnresolvedCity() {
+        forecastCache.cacheForecastsByName("Atlantis", "Nowhere", List.of(), List.of());
+
+        assertThat(forecastCache.getForecastsByName("Atlantis", "Nowhere")).isNull();
+    }
+
+    @Test
+    void evictSingleForecast_ShouldRemoveForecast() {
+        forecastCache.cacheSingleForecast(forecast(7, 3));
+
+        forecastCache.evictSingleForecast(7);
+
+        assertThat(forecastCache.getForecastById(7)).isNull();
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldWaitForTransactionCommit() {
+        forecastCache.cacheForecastsByCityId(1, List.of(forecast(1, 1)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            forecastCache.evictForecastsByCity(1);
+
+            assertThat(forecastCache.getForecastsByCityId(1)).hasSize(1);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+
+            assertThat(forecastCache.getForecastsByCityId(1)).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldHoldOffCachingForReplicaLag() {
+        ForecastCache replicaCache = new ForecastCache(
+                100, 100, Duration.ofMinutes(10), 16, true, Duration.ofHours(1));
+        replicaCache.cacheForecastsByCityId(1, List.of(forecast(1, 1)));
+
+        replicaCache.evictForecastsByCity(1);
+        replicaCache.cacheForecastsByCityId(1, List.of(forecast(1, 1)));
+        replicaCache.cacheSingleForecast(forecast(1, 1));
+        replicaCache.cacheForecastsByCityId(2, List.of(forecast(2, 2)));
+
+        assertThat(replicaCache.getForecastsByCityId(1)).isNull();
+        assertThat(replicaCache.getForecastById(1)).isNull();
+        assertThat(replicaCache.getForecastsByCityId(2)).hasSize(1);
+    }
+
+    @Test
+    void evictForecastsByCity_ShouldNotRaceWithConcurrentPuts() throws InterruptedException {
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        ExecutorService evictor = Executors.newSingleThreadExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 20_000;
+            writers.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < 20_000; i++) {
+                    forecastCache.cacheSingleForecast(forecast(offset + i, 1));
+                    forecastCache.cacheForecastsByName("Minsk", "Belarus" + i % 8,
+                            List.of(1), List.of());
+                }
+            });
+        }
+        evictor.execute(() -> {
+            awaitQuietly(start);
+            while (writing.get()) {
+                forecastCache.evictForecastsByCity(1);
+            }
+        });
+
+        start.countDown();
+        writers.shutdown();
+        assertThat(writers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        writing.set(false);
+        evictor.shutdown();
+        assertThat(evictor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        forecastCache.evictForecastsByCity(1);
+
+        assertThat(forecastCache.getSingleForecastStats().size()).isZero();
+        assertThat(forecastCache.getListForecastStats().size()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ForecastDto forecast(int id, int cityId) {
+        return new ForecastDto(id, cityId, DATE, 1.0, 5.0, 70.0, 3.0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.demo.weatherapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Основная БД и реплики - отдельные in-memory базы H2; в каждой таблица
+ * node с именем базы и таблица replication_lag с отставанием для проверки.
+ */
+class DataSourceRoutingConfigTest {
+
+    private static final String LAG_QUERY = "SELECT lag_ms FROM replication_lag";
+
+    private final List<DataSource> databases = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        databases.forEach(db -> new JdbcTemplate(db).execute("SHUTDOWN"));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplicaAndWritesPrimary() {
+        DataSource primary = database("primary");
+        ReplicaRoutingDataSource replicas = replicas(primary,
+                Map.of("replica", database("replica")));
+        DataSource routing = new DataSourceRoutingConfig().dataSource(primary, replicas);
+        TransactionTemplate tx = new TransactionTemplate(
+                new DataSourceTransactionManager(routing));
+
+        assertThat(read(routing, true)).isEqualTo("replica");
+        assertThat(read(routing, false)).isEqualTo("primary");
+        tx.executeWithoutResult(status ->
+                new JdbcTemplate(routing).update("UPDATE node SET name = 'primary-updated'"));
+        assertThat(name(primary)).isEqualTo("primary-updated");
+    }
+
+    @Test
+    void getConnection_ShouldRoundRobinOverReplicas() {
+        Map<String, DataSource> pool = new LinkedHashMap<>();
+        pool.put("replica-1", database("replica-1"));
+        pool.put("replica-2", database("replica-2"));
+        ReplicaRoutingDataSource replicas = replicas(database("primary"), pool);
+
+        List<String> reads = List.of(name(replicas), name(replicas), name(replicas));
+
+        assertThat(reads).containsExactly("replica-1", "replica-2", "replica-1");
+    }
+
+    @Test
+    void getConnection_ShouldSkipLaggingReplicaAndFallBackToPrimary() {
+        DataSource lagging = database("replica-1");
+        Map<String, DataSource> pool = new LinkedHashMap<>();
+        pool.put("replica-1", lagging);
+        pool.put("replica-2", database("replica-2"));
+        ReplicaRoutingDataSource replicas = replicas(database("primary"), pool);
+
+        new JdbcTemplate(lagging).update("UPDATE replication_lag SET lag_ms = 60000");
+        replicas.checkReplicas();
+
+        assertThat(List.of(name(replicas), name(replicas))).containsOnly("replica-2");
+
+        new JdbcTemplate(pool.get("replica-2")).update("UPDATE replication_lag SET lag_ms = 60000");
+        replicas.checkReplicas();
+
+        assertThat(replicas.availableReplicas()).isZero();
+        assertThat(name(replicas)).isEqualTo("primary");
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimaryWhenReplicaIsDown() {
+        DataSource unreachable = new DriverManagerDataSource("jdbc:unknown:replica");
+        ReplicaRoutingDataSource replicas = replicas(database("primary"),
+                Map.of("replica", unreachable));
+
+        assertThat(name(replicas)).isEqualTo("primary");
+        assertThat(replicas.availableReplicas()).isZero();
+    }
+
+    private ReplicaRoutingDataSource replicas(DataSource primary, Map<String, DataSource> pool) {
+        return new ReplicaRoutingDataSource(primary, pool, Duration.ofSeconds(5), LAG_QUERY);
+    }
+
+    private DataSource database(String name) {
+        DataSource db = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(64))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replication_lag (lag_ms BIGINT)");
+        jdbc.update("INSERT INTO replication_lag VALUES (0)");
+        databases.add(db);
+        return db;
+    }
+
+    private static String read(DataSource routing, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        tx.setReadOnly(readOnly);
+        return tx.execute(status ->
+                new JdbcTemplate(routing).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static String name(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+}
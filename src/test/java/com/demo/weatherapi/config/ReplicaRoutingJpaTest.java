@@ -0,0 +1,145 @@
+package com.demo.weatherapi.config;
+
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.repository.CityRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация на уровне JPA: JpaTransactionManager -> HibernateJpaDialect ->
+ * LazyConnectionDataSourceProxy. Основная БД и реплика - отдельные базы H2,
+ * в каждой заранее записан свой город, по которому видно, откуда пришёл ответ.
+ */
+@SpringJUnitConfig(ReplicaRoutingJpaTest.JpaConfig.class)
+class ReplicaRoutingJpaTest {
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primary")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replica")
+    private DataSource replica;
+
+    @Test
+    void readOnlyRepositoryCall_ShouldReadFromReplica() {
+        assertThat(cityRepository.findAll())
+                .extracting(City::getName)
+                .containsExactly("replica");
+        assertThat(cityRepository.findIdsByName("replica")).hasSize(1);
+    }
+
+    @Test
+    void readWriteTransaction_ShouldReadFromPrimary() {
+        List<City> cities = new TransactionTemplate(transactionManager)
+                .execute(status -> cityRepository.findAll());
+
+        assertThat(cities).extracting(City::getName)
+                .contains("primary")
+                .doesNotContain("replica");
+    }
+
+    @Test
+    void write_ShouldGoToPrimary() {
+        cityRepository.save(new City(null, "Беларусь", "Минск"));
+
+        assertThat(names(primary)).contains("Минск");
+        assertThat(names(replica)).doesNotContain("Минск");
+    }
+
+    private static List<String> names(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT name FROM cities", String.class);
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = CityRepository.class,
+            includeFilters = @ComponentScan.Filter(
+                    type = FilterType.ASSIGNABLE_TYPE, classes = CityRepository.class))
+    static class JpaConfig {
+
+        @Bean
+        DataSource primary() {
+            return database("primary");
+        }
+
+        @Bean
+        DataSource replica() {
+            return database("replica");
+        }
+
+        @Bean
+        ReplicaRoutingDataSource replicaDataSource(@Qualifier("primary") DataSource primary,
+                                                   @Qualifier("replica") DataSource replica) {
+            return new ReplicaRoutingDataSource(primary, Map.of("replica", replica),
+                    Duration.ofSeconds(5), "SELECT 0");
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(@Qualifier("primary") DataSource primary,
+                              ReplicaRoutingDataSource replicaDataSource) {
+            return new DataSourceRoutingConfig().dataSource(primary, replicaDataSource);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory =
+                    new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(City.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                    "hibernate.hbm2ddl.auto", "none"));
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        private static DataSource database(String name) {
+            DataSource db = new DriverManagerDataSource(
+                    "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                    "sa", "");
+            JdbcTemplate jdbc = new JdbcTemplate(db);
+            jdbc.execute("CREATE TABLE cities (id INTEGER GENERATED BY DEFAULT AS IDENTITY "
+                    + "PRIMARY KEY, country VARCHAR(100) NOT NULL, name VARCHAR(100) NOT NULL)");
+            jdbc.update("INSERT INTO cities (country, name) VALUES (?, ?)", "Беларусь", name);
+            return db;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.demo.weatherapi.repository;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.model.Forecast;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class ForecastRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 11);
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    private City minsk;
+    private City brest;
+
+    @BeforeEach
+    void setUp() {
+        minsk = cityRepository.save(new City(null, "Беларусь", "Минск"));
+        brest = cityRepository.save(new City(null, "Беларусь", "Брест"));
+
+        forecastRepository.saveAll(List.of(
+                forecast(minsk, DAY, -5.0, 3.0),
+                forecast(minsk, DAY.plusDays(1), 2.0, 9.0),
+                forecast(brest, DAY, 1.0, 12.0),
+                forecast(brest, DAY.plusDays(1), 4.0, 15.0)
+        ));
+    }
+
+    @Test
+    void findByFilters_ShouldMatchCityNameIgnoringCase() {
+        List<Forecast> result = forecastRepository.findByFilters(
+                ForecastSpecifications.byFilters("минск", null, null, null), firstPage(10));
+
+        assertThat(result).hasSize(2)
+                .allMatch(f -> f.getCity().getId().equals(minsk.getId()));
+    }
+
+    @Test
+    void findByFilters_ShouldCombineAllPredicates() {
+        List<Forecast> result = forecastRepository.findByFilters(
+                ForecastSpecifications.byFilters("Брест", DAY, 0.0, 12.0), firstPage(10));
+
+        assertThat(result).singleElement()
+                .satisfies(f -> {
+                    assertThat(f.getCity().getId()).isEqualTo(brest.getId());
+                    assertThat(f.getDate()).isEqualTo(DAY);
+                });
+    }
+
+    @Test
+    void findByFilters_ShouldReturnEverythingWithoutFilters() {
+        List<Forecast> result = forecastRepository.findByFilters(
+                ForecastSpecifications.byFilters(null, null, null, null), firstPage(10));
+
+        assertThat(result).hasSize(4);
+    }
+
+    @Test
+    void findByFilters_ShouldApplyPaging() {
+        List<Forecast> firstPage = forecastRepository.findByFilters(
+                ForecastSpecifications.byFilters(null, null, null, null), firstPage(3));
+        List<Forecast> secondPage = forecastRepository.findByFilters(
+                ForecastSpecifications.byFilters(null, null, null, null),
+                PageRequest.of(1, 3, Sort.by("id")));
+
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(2).getId());
+    }
+
+    @Test
+    void findDtosAfterId_ShouldReturnNextKeysetPage() {
+        List<ForecastDto> first = forecastRepository.findDtosAfterId(0, Limit.of(3));
+        List<ForecastDto> next = forecastRepository.findDtosAfterId(
+                first.get(2).getId(), Limit.of(3));
+
+        assertThat(first).hasSize(3)
+                .isSortedAccordingTo(Comparator.comparing(ForecastDto::getId));
+        assertThat(next).hasSize(1);
+        assertThat(next.get(0).getId()).isGreaterThan(first.get(2).getId());
+    }
+
+    @Test
+    void findDtosByCityIdsAndDate_ShouldProjectAllColumns() {
+        List<ForecastDto> result = forecastRepository.findDtosByCityIdsAndDate(
+                List.of(brest.getId()), DAY);
+
+        assertThat(result).singleElement().satisfies(dto -> {
+            assertThat(dto.getCityId()).isEqualTo(brest.getId());
+            assertThat(dto.getDate()).isEqualTo(DAY);
+            assertThat(dto.getTemperatureMin()).isEqualTo(1.0);
+            assertThat(dto.getTemperatureMax()).isEqualTo(12.0);
+            assertThat(dto.getCondition()).isEqualTo("Облачно");
+            assertThat(dto.getHumidity()).isEqualTo(70.0);
+            assertThat(dto.getWindSpeed()).isEqualTo(3.0);
+        });
+        assertThat(forecastRepository.findDtosByCityId(minsk.getId())).hasSize(2);
+        assertThat(forecastRepository.findDtoById(result.get(0).getId())).contains(result.get(0));
+    }
+
+    @Test
+    void streamAllDtosOrderById_ShouldReturnAllForecastsInIdOrder() {
+        List<ForecastDto> forecasts;
+        try (Stream<ForecastDto> stream = forecastRepository.streamAllDtosOrderById()) {
+            forecasts = stream.toList();
+        }
+
+        assertThat(forecasts).extracting(ForecastDto::getId).hasSize(4).isSorted();
+        assertThat(forecasts).extracting(ForecastDto::getCityId)
+                .containsOnly(minsk.getId(), brest.getId());
+    }
+
+    @Test
+    void findKeysByCityIdsAndDates_ShouldReturnExistingPairs() {
+        List<ForecastKey> keys = forecastRepository.findKeysByCityIdsAndDates(
+                List.of(minsk.getId()), Set.of(DAY, DAY.plusDays(5)));
+
+        assertThat(keys).containsExactly(new ForecastKey(minsk.getId(), DAY));
+    }
+
+    @Test
+    void insertAll_ShouldPersistForecastsAcrossSeveralBatches() {
+        List<Forecast> forecasts = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            forecasts.add(forecast(i % 2 == 0 ? minsk : brest, DAY.plusDays(10 + i), 0.0, 1.0));
+        }
+
+        List<Forecast> saved = forecastRepository.insertAll(forecasts);
+
+        assertThat(saved).allMatch(f -> f.getId() != null);
+        assertThat(saved).extracting(Forecast::getId).doesNotHaveDuplicates();
+        assertThat(forecastRepository.count()).isEqualTo(2_504);
+    }
+
+    private static PageRequest firstPage(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    private static Forecast forecast(City city, LocalDate date, double min, double max) {
+        Forecast forecast = new Forecast();
+        forecast.setCity(city);
+        forecast.setDate(date);
+        forecast.setTemperatureMin(min);
+        forecast.setTemperatureMax(max);
+        forecast.setCondition("Облачно");
+        forecast.setHumidity(70.0);
+        forecast.setWindSpeed(3.0);
+        return forecast;
+    }
+}
@@ -0,0 +1,101 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.CityDto;
+import com.demo.weatherapi.mapper.CityMapper;
+import com.demo.weatherapi.mapper.ForecastMapper;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.model.Forecast;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Число SQL-запросов списка городов не должно зависеть от числа городов.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@Import({CityService.class, CityRegistry.class, CityMapper.class, ForecastMapper.class})
+class CityListingQueryCountTest {
+
+    private static final int FORECASTS_PER_CITY = 3;
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 11);
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 25})
+    void getAll_ShouldUseSingleQueryInSummaryMode(int cities) {
+        persistCities(cities);
+
+        statistics.clear();
+        List<CityDto> result = cityService.getAll(false);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(result).hasSize(cities).allSatisfy(city -> {
+            assertThat(city.getForecastCount()).isEqualTo((long) FORECASTS_PER_CITY);
+            assertThat(city.getLatestForecastDate())
+                    .isEqualTo(DAY.plusDays(FORECASTS_PER_CITY - 1));
+            assertThat(city.getForecasts()).isNull();
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 25})
+    void getAll_ShouldFetchForecastsWithCitiesInSingleQuery(int cities) {
+        persistCities(cities);
+
+        statistics.clear();
+        List<CityDto> result = cityService.getAll(true);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(result).hasSize(cities)
+                .allSatisfy(city -> assertThat(city.getForecasts()).hasSize(FORECASTS_PER_CITY));
+    }
+
+    private void persistCities(int count) {
+        for (int i = 0; i < count; i++) {
+            City city = entityManager.persist(new City(null, "Беларусь", "Город " + i));
+            for (int day = 0; day < FORECASTS_PER_CITY; day++) {
+                Forecast forecast = new Forecast();
+                forecast.setCity(city);
+                forecast.setDate(DAY.plusDays(day));
+                forecast.setTemperatureMin(0.0);
+                forecast.setTemperatureMax(5.0);
+                forecast.setCondition("Облачно");
+                forecast.setHumidity(70.0);
+                forecast.setWindSpeed(3.0);
+                entityManager.persist(forecast);
+            }
+        }
+        // Без очистки контекста города и прогнозы брались бы из кэша сессии
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.repository.CityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CityRegistryTest {
+
+    private CityRepository cityRepository;
+    private CityRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository = mock(CityRepository.class);
+        when(cityRepository.findAll()).thenReturn(List.of(
+                new City(1, "Russia", "Moscow"),
+                new City(2, "USA", "Moscow"),
+                new City(3, "Germany", "Berlin")));
+        registry = new CityRegistry(cityRepository);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findIdsByName_ShouldIgnoreCaseAndSurroundingSpaces() {
+        assertThat(registry.findIdsByName(" MOSCOW ")).containsExactlyInAnyOrder(1, 2);
+        assertThat(registry.findIdsByNameAndCountry("moscow", "usa")).containsExactly(2);
+        assertThat(registry.find(3).name()).isEqualTo("Berlin");
+
+        verify(cityRepository, times(1)).findAll();
+        verify(cityRepository, never()).findIdsByName(any());
+        verify(cityRepository, never()).findById(any());
+    }
+
+    @Test
+    void find_ShouldLoadMissingCityFromRepositoryOnce() {
+        when(cityRepository.findById(4)).thenReturn(Optional.of(new City(4, "France", "Paris")));
+
+        assertThat(registry.find(4).name()).isEqualTo("Paris");
+        assertThat(registry.find(4).country()).isEqualTo("France");
+        assertThat(registry.findIdsByName("paris")).containsExactly(4);
+
+        verify(cityRepository, times(1)).findById(4);
+        assertThat(registry.find(5)).isNull();
+    }
+
+    @Test
+    void findAll_ShouldQueryOnlyMissingIds() {
+        when(cityRepository.findAllById(Set.of(4, 5)))
+                .thenReturn(List.of(new City(4, "France", "Paris")));
+
+        Map<Integer, CityRegistry.Entry> found = registry.findAll(List.of(1, 4, 5));
+
+        assertThat(found).containsOnlyKeys(1, 4);
+        verify(cityRepository).findAllById(Set.of(4, 5));
+    }
+
+    @Test
+    void putAndRemove_ShouldUpdateIndexesImmediatelyOutsideTransaction() {
+        registry.put(new City(3, "Germany", "Munich"));
+        registry.remove(1);
+
+        assertThat(registry.findIdsByName("moscow")).containsExactly(2);
+        assertThat(registry.findIdsByName("munich")).containsExactly(3);
+        assertThat(registry.find(3).name()).isEqualTo("Munich");
+    }
+
+    @Test
+    void put_ShouldApplyChangeOnlyAfterCommit() {
+        registry.find(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.put(new City(4, "France", "Paris"));
+
+        assertThat(registry.findIdsByName("paris")).isEmpty();
+        for (TransactionSynchronization sync
+                : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        assertThat(registry.findIdsByName("paris")).containsExactly(4);
+    }
+
+    @Test
+    void reload_ShouldReplaceSnapshotWithCurrentCities() {
+        registry.find(1);
+        when(cityRepository.findAll()).thenReturn(List.of(new City(5, "Spain", "Madrid")));
+
+        registry.reload();
+
+        assertThat(registry.findIdsByName("madrid")).containsExactly(5);
+        assertThat(registry.findAll(List.of(1))).isEmpty();
+    }
+}
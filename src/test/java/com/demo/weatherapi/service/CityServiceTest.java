@@ -7,6 +7,8 @@ import com.demo.weatherapi.dto.CityDto;
 import com.demo.weatherapi.mapper.CityMapper;
 import com.demo.weatherapi.model.City;
 import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.CitySummary;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,9 @@ class CityServiceTest {
     @Mock
     private CityMapper cityMapper;
 
+    @Mock
+    private CityRegistry cityRegistry;
+
     @InjectMocks
     private CityService cityService;
 
@@ -45,26 +50,43 @@ class CityServiceTest {
         assertEquals(expectedDto.getName(), result.getName());
         verify(cityRepository).save(entity);
         verify(cityMapper).toDto(savedEntity);
+        verify(cityRegistry).put(savedEntity);
+    }
+
+    @Test
+    void getAll_ShouldReturnSummariesByDefault() {
+        CitySummary summary = new CitySummary(1, "Russia", "Moscow", 3L, LocalDate.of(2025, 5, 11));
+        CityDto dto = createTestCityDto(1, "Moscow");
+
+        when(cityRepository.findSummaries()).thenReturn(List.of(summary));
+        when(cityMapper.toDto(summary)).thenReturn(dto);
+
+        List<CityDto> result = cityService.getAll(false);
+
+        assertEquals(List.of(dto), result);
+        verify(cityRepository, never()).findAll();
+        verify(cityRepository, never()).findAllWithForecasts();
     }
 
     @Test
-    void getAll_ShouldReturnListOfDtos() {
+    void getAll_ShouldReturnListOfDtosWithForecastsOnRequest() {
         City city1 = createTestCity(1, "Moscow");
         City city2 = createTestCity(2, "Berlin");
         CityDto dto1 = createTestCityDto(1, "Moscow");
         CityDto dto2 = createTestCityDto(2, "Berlin");
 
-        when(cityRepository.findAll()).thenReturn(List.of(city1, city2));
+        when(cityRepository.findAllWithForecasts()).thenReturn(List.of(city1, city2));
         when(cityMapper.toDto(city1)).thenReturn(dto1);
         when(cityMapper.toDto(city2)).thenReturn(dto2);
 
-        List<CityDto> result = cityService.getAll();
+        List<CityDto> result = cityService.getAll(true);
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(dto1, result.get(0));
         assertEquals(dto2, result.get(1));
-        verify(cityRepository).findAll();
+        verify(cityRepository).findAllWithForecasts();
+        verify(cityRepository, never()).findSummaries();
     }
 
     @Test
@@ -104,6 +126,7 @@ class CityServiceTest {
 
         assertTrue(result);
         verify(cityRepository).deleteById(cityId);
+        verify(cityRegistry).remove(cityId);
     }
 
     @Test
@@ -115,6 +138,7 @@ class CityServiceTest {
 
         assertFalse(result);
         verify(cityRepository, never()).deleteById(cityId);
+        verifyNoInteractions(cityRegistry);
     }
 
     @Test
@@ -0,0 +1,107 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.mapper.ForecastMapper;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@Import({ForecastServiceImpl.class, CityRegistry.class, ForecastMapper.class, ForecastCache.class})
+class ForecastBulkThroughputTest {
+
+    private static final int ROWS = 10_000;
+    // Нижняя граница с большим запасом: на H2 в памяти реальная скорость на порядок выше
+    private static final double MIN_ROWS_PER_SECOND = 1_000;
+
+    @Autowired
+    private ForecastService forecastService;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<City> cities;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cities = cityRepository.saveAll(List.of(
+                new City(null, "Беларусь", "Минск"),
+                new City(null, "Беларусь", "Гродно")));
+    }
+
+    @Test
+    void bulkOperations_ShouldUseBatchedStatementsAndMeetThroughputTarget() {
+        List<ForecastDto> created = forecastService.createBulk(forecasts(0.0));
+        assertThat(created).hasSize(ROWS);
+
+        List<ForecastDto> updates = created.stream()
+                .map(dto -> {
+                    ForecastDto update = new ForecastDto(dto.getId(), dto.getCityId(),
+                            dto.getDate(), 5.0, 6.0, 50.0, 1.0);
+                    update.setCondition("Ясно");
+                    return update;
+                }).toList();
+
+        statistics.clear();
+        long updateStart = System.nanoTime();
+        forecastService.updateBulk(updates);
+        double updateRate = rowsPerSecond(updateStart);
+        long updateStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long deleteStart = System.nanoTime();
+        forecastService.deleteBulk(created.stream().map(ForecastDto::getId).toList());
+        double deleteRate = rowsPerSecond(deleteStart);
+        long deleteStatements = statistics.getPrepareStatementCount();
+
+        // Построчная обработка дала бы не меньше ROWS операторов на каждую операцию
+        assertThat(updateStatements).isLessThan(ROWS / 50);
+        assertThat(deleteStatements).isLessThanOrEqualTo(2L * ROWS / 1000);
+        assertThat(updateRate).isGreaterThan(MIN_ROWS_PER_SECOND);
+        assertThat(deleteRate).isGreaterThan(MIN_ROWS_PER_SECOND);
+        assertThat(forecastRepository.count()).isZero();
+    }
+
+    private List<ForecastDto> forecasts(double temperature) {
+        List<ForecastDto> forecasts = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            City city = cities.get(i % cities.size());
+            ForecastDto dto = new ForecastDto(null, city.getId(), start.plusDays(i / 2),
+                    temperature, temperature + 1, 70.0, 3.0);
+            dto.setCondition("Облачно");
+            forecasts.add(dto);
+        }
+        return forecasts;
+    }
+
+    private static double rowsPerSecond(long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return ROWS / Math.max(seconds, 1e-9);
+    }
+}
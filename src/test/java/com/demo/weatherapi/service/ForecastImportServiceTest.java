@@ -0,0 +1,173 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastImportResult;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.model.Forecast;
+import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastBulkLoader;
+import com.demo.weatherapi.repository.ForecastRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "forecast.import.batch-size=2")
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ForecastImportService.class, ForecastBulkLoader.class, ForecastCache.class})
+class ForecastImportServiceTest {
+
+    @Autowired
+    private ForecastImportService importService;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    private City city;
+
+    @BeforeEach
+    void setUp() {
+        city = cityRepository.save(new City(null, "Беларусь", "Минск"));
+    }
+
+    @Test
+    void importForecasts_ShouldLoadValidCsvRowsAndReportRejected() throws IOException {
+        forecastCache.cacheForecastsByCityId(city.getId(), List.of());
+        String csv = String.join("\n",
+                "cityId,date,temperatureMin,temperatureMax,condition,humidity,windSpeed",
+                row(city.getId(), "2025-05-11", -1.0, 4.0, "\"Снег, метель\""),
+                row(city.getId(), "2025-05-12", 9.0, 4.0, "Ясно"),
+                row(999_999, "2025-05-13", 1.0, 4.0, "Ясно"),
+                row(city.getId(), "not-a-date", 1.0, 4.0, "Ясно"),
+                row(city.getId(), "2025-05-11", 0.0, 2.0, "Дубликат"),
+                row(city.getId(), "2025-05-14", 1.0, 4.0, "Облачно"),
+                "");
+
+        ForecastImportResult result = importService.importForecasts(
+                stream(csv), ForecastImportFormat.CSV);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.getRejectedRows())
+                .extracting(ForecastImportResult.RejectedRow::line)
+                .containsExactly(3L, 4L, 5L, 6L);
+        assertThat(result.getRejectedRows().get(3).reason()).contains("уже существует");
+
+        List<Forecast> saved = forecastRepository.findByCityId(city.getId());
+        assertThat(saved).hasSize(2)
+                .extracting(Forecast::getCondition)
+                .containsExactlyInAnyOrder("Снег, метель", "Облачно");
+        assertThat(saved).allMatch(f -> f.getId() != null);
+        assertThat(forecastCache.getForecastsByCityId(city.getId())).isNotNull();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertThat(forecastCache.getForecastsByCityId(city.getId())).isNull();
+    }
+
+    @Test
+    void importForecasts_ShouldLoadNdjson() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"cityId\":" + city.getId() + ",\"date\":\"2025-05-11\",\"temperatureMin\":1.0,"
+                        + "\"temperatureMax\":3.0,\"condition\":\"Дождь\",\"humidity\":90.0,"
+                        + "\"windSpeed\":5.0}",
+                "{broken json",
+                "{\"cityId\":" + city.getId() + ",\"date\":\"2025-05-12\",\"temperatureMin\":1.0,"
+                        + "\"temperatureMax\":3.0,\"humidity\":90.0,\"windSpeed\":5.0}");
+
+        ForecastImportResult result = importService.importForecasts(
+                stream(ndjson), ForecastImportFormat.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejectedRows())
+                .extracting(ForecastImportResult.RejectedRow::reason)
+                .satisfiesExactly(
+                        reason -> assertThat(reason).startsWith("Некорректный JSON"),
+                        reason -> assertThat(reason).contains("Описание погодных условий"));
+    }
+
+    @Test
+    void importForecasts_ShouldAllocateIdsCompatibleWithJpaInserts() throws IOException {
+        importService.importForecasts(stream(String.join("\n",
+                "cityId,date,temperatureMin,temperatureMax,condition,humidity,windSpeed",
+                row(city.getId(), "2025-05-11", 1.0, 4.0, "Ясно"))), ForecastImportFormat.CSV);
+
+        Forecast forecast = new Forecast();
+        forecast.setCity(city);
+        forecast.setDate(LocalDate.of(2025, 5, 12));
+        forecast.setTemperatureMin(1.0);
+        forecast.setTemperatureMax(2.0);
+        forecast.setCondition("Ясно");
+        forecast.setHumidity(50.0);
+        forecast.setWindSpeed(1.0);
+        forecastRepository.saveAndFlush(forecast);
+
+        assertThat(forecastRepository.findByCityId(city.getId()))
+                .extracting(Forecast::getId)
+                .doesNotHaveDuplicates()
+                .hasSize(2);
+    }
+
+    @Test
+    void importForecasts_ShouldTakeFirstNonBlankLineAsCsvHeader() throws IOException {
+        String csv = String.join("\n",
+                "",
+                "cityId,date,temperatureMin,temperatureMax,condition,humidity,windSpeed",
+                row(city.getId(), "2025-05-11", 1.0, 4.0, "Ясно"));
+
+        ForecastImportResult result = importService.importForecasts(
+                stream(csv), ForecastImportFormat.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isZero();
+    }
+
+    @Test
+    void importForecasts_ShouldStripBomBeforeCsvHeader() throws IOException {
+        String csv = String.join("\n",
+                "\uFEFFcityId,date,temperatureMin,temperatureMax,condition,humidity,windSpeed",
+                row(city.getId(), "2025-05-11", 1.0, 4.0, "Ясно"));
+
+        ForecastImportResult result = importService.importForecasts(
+                stream(csv), ForecastImportFormat.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+    }
+
+    @Test
+    void importForecasts_ShouldFailOnIncompleteCsvHeader() {
+        assertThatThrownBy(() -> importService.importForecasts(
+                stream("cityId,date\n1,2025-05-11"), ForecastImportFormat.CSV))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("temperatureMin");
+    }
+
+    private static String row(Integer cityId, String date, double min, double max,
+                              String condition) {
+        return cityId + "," + date + "," + min + "," + max + "," + condition + ",70.0,3.0";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastIngestStatus;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.exception.ResourceNotFoundException;
+import com.demo.weatherapi.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ForecastIngestServiceTest {
+
+    private ForecastService forecastService;
+    private ForecastIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        forecastService = mock(ForecastService.class);
+        ingestService = new ForecastIngestService(forecastService, 4, 1, 10,
+                Duration.ofMillis(20), Duration.ofSeconds(3), Duration.ofHours(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestService.stop();
+    }
+
+    @Test
+    void submit_ShouldWriteQueuedForecastsInOneBulkCall() throws InterruptedException {
+        ingestService.start();
+
+        ForecastIngestStatus accepted = ingestService.submit(forecasts(3));
+
+        assertThat(accepted.getStatus()).isEqualTo(ForecastIngestService.STATUS_PROCESSING);
+        ForecastIngestStatus status = awaitDone(accepted.getBatchId());
+        assertThat(status.getStatus()).isEqualTo(ForecastIngestService.STATUS_COMPLETED);
+        assertThat(status.getWritten()).isEqualTo(3);
+        verify(forecastService).createBulk(argThat(list -> list.size() == 3));
+        verify(forecastService, never()).create(any());
+    }
+
+    @Test
+    void submit_ShouldRejectWithRetryAfterWhenQueueIsFull() {
+        ingestService.submit(forecasts(3));
+
+        assertThatThrownBy(() -> ingestService.submit(forecasts(2)))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting(e -> ((TooManyRequestsException) e).getRetryAfterSeconds())
+                .isEqualTo(3L);
+        assertThat(ingestService.queuedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void submit_ShouldValidateBeforeQueueing() {
+        List<ForecastDto> forecasts = forecasts(2);
+        forecasts.get(1).setTemperatureMin(50.0);
+
+        assertThatThrownBy(() -> ingestService.submit(forecasts))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(ingestService.queuedCount()).isZero();
+    }
+
+    @Test
+    void submit_ShouldFallBackToSingleWritesWhenBulkFails() throws InterruptedException {
+        List<ForecastDto> forecasts = forecasts(3);
+        when(forecastService.createBulk(anyList()))
+                .thenThrow(new BadRequestException("Прогноз уже существует"));
+        when(forecastService.create(forecasts.get(1)))
+                .thenThrow(new BadRequestException("Прогноз уже существует"));
+        ingestService.start();
+
+        ForecastIngestStatus status = awaitDone(ingestService.submit(forecasts).getBatchId());
+
+        assertThat(status.getStatus())
+                .isEqualTo(ForecastIngestService.STATUS_COMPLETED_WITH_ERRORS);
+        assertThat(status.getWritten()).isEqualTo(2);
+        assertThat(status.getFailed()).isEqualTo(1);
+        assertThat(status.getErrors()).containsExactly("Прогноз уже существует");
+    }
+
+    @Test
+    void submit_ShouldEvictOldestFinishedStatusWhenFull() throws InterruptedException {
+        ingestService.start();
+        String first = ingestService.submit(forecasts(1)).getBatchId();
+        awaitDone(first);
+        Thread.sleep(5);
+        String second = ingestService.submit(forecasts(1)).getBatchId();
+        awaitDone(second);
+
+        String third = ingestService.submit(forecasts(1)).getBatchId();
+
+        assertThatThrownBy(() -> ingestService.getStatus(first))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(ingestService.getStatus(second).getStatus())
+                .isEqualTo(ForecastIngestService.STATUS_COMPLETED);
+        assertThat(ingestService.getStatus(third)).isNotNull();
+    }
+
+    @Test
+    void purgeExpiredBatches_ShouldKeepBatchesInProgress() {
+        ingestService = new ForecastIngestService(forecastService, 4, 1, 10,
+                Duration.ofMillis(20), Duration.ofSeconds(3), Duration.ZERO, 2);
+        String batchId = ingestService.submit(forecasts(1)).getBatchId();
+
+        ingestService.purgeExpiredBatches();
+
+        assertThat(ingestService.getStatus(batchId).getStatus())
+                .isEqualTo(ForecastIngestService.STATUS_PROCESSING);
+    }
+
+    @Test
+    void getStatus_ShouldThrowForUnknownBatch() {
+        assertThatThrownBy(() -> ingestService.getStatus("unknown"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ForecastIngestStatus awaitDone(String batchId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        ForecastIngestStatus status = ingestService.getStatus(batchId);
+        while (ForecastIngestService.STATUS_PROCESSING.equals(status.getStatus())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = ingestService.getStatus(batchId);
+        }
+        return status;
+    }
+
+    private static List<ForecastDto> forecasts(int count) {
+        List<ForecastDto> forecasts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            forecasts.add(new ForecastDto(null, 1, LocalDate.of(2025, 5, 11).plusDays(i),
+                    1.0, 5.0, 70.0, 3.0));
+        }
+        return forecasts;
+    }
+}
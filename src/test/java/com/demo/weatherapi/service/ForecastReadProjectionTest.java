@@ -0,0 +1,126 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.mapper.ForecastMapper;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.model.Forecast;
+import com.demo.weatherapi.repository.ForecastRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Чтение прогнозов города через сущности (как было: Forecast с EAGER City,
+ * снимки для dirty checking, копирование в ForecastMapper) и через проекцию
+ * в ForecastDto. Печатает время и объём выделенной памяти на строку; проверяет
+ * только то, что не зависит от машины: проекция не создаёт сущностей и
+ * выделяет меньше памяти.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+class ForecastReadProjectionTest {
+    private static final Logger log = LoggerFactory.getLogger(ForecastReadProjectionTest.class);
+
+    private static final int ROWS = 5_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ForecastMapper forecastMapper = new ForecastMapper();
+    private Statistics statistics;
+    private Integer cityId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        City city = entityManager.persist(new City(null, "Беларусь", "Минск"));
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            Forecast forecast = new Forecast();
+            forecast.setCity(city);
+            forecast.setDate(start.plusDays(i));
+            forecast.setTemperatureMin(-1.0);
+            forecast.setTemperatureMax(4.0);
+            forecast.setCondition("Облачно");
+            forecast.setHumidity(70.0);
+            forecast.setWindSpeed(3.0);
+            entityManager.persist(forecast);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        cityId = city.getId();
+    }
+
+    @Test
+    void projection_ShouldSkipEntityHydrationAndAllocateLessPerRow() {
+        Supplier<List<ForecastDto>> entities = () -> forecastRepository.findByCityId(cityId)
+                .stream().map(forecastMapper::toDto).toList();
+        Supplier<List<ForecastDto>> projection = () -> forecastRepository.findDtosByCityId(cityId);
+
+        assertThat(projection.get()).containsExactlyInAnyOrderElementsOf(entities.get());
+        entityManager.clear();
+
+        statistics.clear();
+        assertThat(projection.get()).hasSize(ROWS);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+
+        Measurement before = measure(entities);
+        Measurement after = measure(projection);
+        log.info("Forecast read per row: entities {} ns / {} B, projection {} ns / {} B",
+                before.nanosPerRow(), before.bytesPerRow(),
+                after.nanosPerRow(), after.bytesPerRow());
+
+        assertThat(after.bytesPerRow()).isLessThan(before.bytesPerRow());
+    }
+
+    private Measurement measure(Supplier<List<ForecastDto>> read) {
+        for (int i = 0; i < WARMUP; i++) {
+            read.get();
+            entityManager.clear();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long startBytes = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            read.get();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(threadId) - startBytes;
+            // Иначе сущности копились бы в контексте и следующие чтения брали их оттуда
+            entityManager.clear();
+        }
+        long rows = (long) ROWS * ITERATIONS;
+        return new Measurement(nanos / rows, bytes / rows);
+    }
+
+    private record Measurement(long nanosPerRow, long bytesPerRow) {
+    }
+}
@@ -8,12 +8,18 @@ import com.demo.weatherapi.mapper.ForecastMapper;
 import com.demo.weatherapi.model.City;
 import com.demo.weatherapi.model.Forecast;
 import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastKey;
 import com.demo.weatherapi.repository.ForecastRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -37,7 +43,10 @@ class ForecastServiceImplTest {
         cityRepository = mock(CityRepository.class);
         forecastMapper = mock(ForecastMapper.class);
         forecastCache = mock(ForecastCache.class);
-        forecastService = new ForecastServiceImpl(forecastRepository, cityRepository, forecastMapper, forecastCache);
+        forecastService = new ForecastServiceImpl(forecastRepository, cityRepository,
+                new CityRegistry(cityRepository), forecastMapper, forecastCache);
+        when(cityRepository.getReferenceById(anyInt()))
+                .thenAnswer(inv -> new City(inv.getArgument(0), null, null));
     }
 
     @Test
@@ -49,18 +58,17 @@ class ForecastServiceImplTest {
         ForecastDto savedDto = new ForecastDto(100, 1, dto.getDate(), 10.0, 20.0, 80.0, 10.0);
 
         when(cityRepository.findById(1)).thenReturn(Optional.of(city));
-        when(forecastRepository.existsByCityAndDate(city, dto.getDate())).thenReturn(false);
         when(forecastMapper.toEntity(dto)).thenReturn(entity);
-        when(forecastRepository.save(entity)).thenReturn(savedEntity);
+        when(forecastRepository.saveAndFlush(entity)).thenReturn(savedEntity);
         when(forecastMapper.toDto(savedEntity)).thenReturn(savedDto);
 
         ForecastDto result = forecastService.create(dto);
 
         assertThat(result).isEqualTo(savedDto);
-        verify(forecastCache).cacheSingleForecast(savedDto);
         verify(forecastCache).evictForecastsByCity(city.getId());
         verify(forecastCache).evictForecastsByCityAndDate(city.getId(), dto.getDate());
-        verify(forecastRepository).save(entity);
+        verify(forecastRepository).saveAndFlush(entity);
+        assertThat(entity.getCity()).isEqualTo(city);
     }
 
     @Test
@@ -77,13 +85,37 @@ class ForecastServiceImplTest {
     void create_throwsIfForecastExists() {
         ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
         City city = new City(1, "TestCountry", "TestCity");
+        Forecast entity = new Forecast();
 
         when(cityRepository.findById(1)).thenReturn(Optional.of(city));
-        when(forecastRepository.existsByCityAndDate(city, dto.getDate())).thenReturn(true);
+        when(forecastMapper.toEntity(dto)).thenReturn(entity);
+        when(forecastRepository.saveAndFlush(entity))
+                .thenThrow(constraintViolation("PUBLIC.UQ_FORECASTS_CITY_ID_DATE_INDEX_B"));
 
         assertThatThrownBy(() -> forecastService.create(dto))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Прогноз на " + dto.getDate().format(java.time.format.DateTimeFormatter.ISO_DATE) + " для города TestCity уже существует");
+        verifyNoInteractions(forecastCache);
+    }
+
+    @Test
+    void create_rethrowsOtherConstraintViolations() {
+        ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
+        City city = new City(1, "TestCountry", "TestCity");
+        Forecast entity = new Forecast();
+        DataIntegrityViolationException violation = constraintViolation("fk_forecasts_city_id");
+
+        when(cityRepository.findById(1)).thenReturn(Optional.of(city));
+        when(forecastMapper.toEntity(dto)).thenReturn(entity);
+        when(forecastRepository.saveAndFlush(entity)).thenThrow(violation);
+
+        assertThatThrownBy(() -> forecastService.create(dto)).isSameAs(violation);
+        verifyNoInteractions(forecastCache);
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String constraint) {
+        return new DataIntegrityViolationException("constraint violation",
+                new ConstraintViolationException("constraint violation", null, constraint));
     }
 
     @Test
@@ -139,17 +171,25 @@ class ForecastServiceImplTest {
     }
 
     @Test
-    void readAll_successful() {
-        Forecast forecast = new Forecast();
-        ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
-        when(forecastRepository.findAll()).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(dto);
+    void readPage_successful() {
+        ForecastDto dto = new ForecastDto(11, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
+        when(forecastRepository.findDtosAfterId(eq(10), any(Limit.class)))
+                .thenReturn(List.of(dto));
 
-        List<ForecastDto> result = forecastService.readAll();
+        List<ForecastDto> result = forecastService.readPage(10, 50);
 
         assertThat(result).hasSize(1).containsExactly(dto);
-        verify(forecastRepository).findAll();
-        verify(forecastMapper).toDto(forecast);
+        verify(forecastRepository).findDtosAfterId(
+                eq(10), argThat(limit -> limit.max() == 50));
+        verify(forecastRepository, never()).findAll();
+        verifyNoInteractions(forecastMapper);
+    }
+
+    @Test
+    void readPage_throwsIfLimitTooLarge() {
+        assertThatThrownBy(() -> forecastService.readPage(0, ForecastServiceImpl.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("limit");
     }
 
     @Test
@@ -165,23 +205,22 @@ class ForecastServiceImplTest {
 
     @Test
     void read_loadsFromRepoIfNotInCache() {
-        Forecast entity = new Forecast();
         ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
 
         when(forecastCache.getForecastById(1)).thenReturn(null);
-        when(forecastRepository.findById(1)).thenReturn(Optional.of(entity));
-        when(forecastMapper.toDto(entity)).thenReturn(dto);
+        when(forecastRepository.findDtoById(1)).thenReturn(Optional.of(dto));
 
         ForecastDto result = forecastService.read(1);
 
         assertThat(result).isEqualTo(dto);
         verify(forecastCache).cacheSingleForecast(dto);
+        verify(forecastRepository, never()).findById(any());
     }
 
     @Test
     void read_throwsIfNotFound() {
         when(forecastCache.getForecastById(1)).thenReturn(null);
-        when(forecastRepository.findById(1)).thenReturn(Optional.empty());
+        when(forecastRepository.findDtoById(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> forecastService.read(1))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -193,21 +232,46 @@ class ForecastServiceImplTest {
         ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 15.0, 25.0, 80.0, 10.0);
         City city = new City(1, "TestCountry", "TestCity");
         Forecast existing = new Forecast();
+        existing.setCity(city);
         Forecast updatedEntity = new Forecast();
         ForecastDto updatedDto = new ForecastDto(1, 1, dto.getDate(), 15.0, 25.0, 80.0, 10.0);
 
         when(forecastRepository.findById(1)).thenReturn(Optional.of(existing));
         when(cityRepository.findById(1)).thenReturn(Optional.of(city));
         doNothing().when(forecastMapper).updateFromDto(dto, existing);
-        when(forecastRepository.save(existing)).thenReturn(updatedEntity);
+        when(forecastRepository.saveAndFlush(existing)).thenReturn(updatedEntity);
         when(forecastMapper.toDto(updatedEntity)).thenReturn(updatedDto);
 
         ForecastDto result = forecastService.update(dto, 1);
 
         assertThat(result).isEqualTo(updatedDto);
-        verify(forecastCache).cacheSingleForecast(updatedDto);
         verify(forecastCache).evictForecastsByCity(city.getId());
         verify(forecastCache).evictForecastsByCityAndDate(city.getId(), dto.getDate());
+        verify(forecastCache).evictSingleForecast(1);
+    }
+
+    @Test
+    void update_evictsPreviousCityWhenCityChanges() {
+        ForecastDto dto = new ForecastDto(1, 2, LocalDate.now(), 15.0, 25.0, 80.0, 10.0);
+        City previousCity = new City(1, "TestCountry", "OldCity");
+        City newCity = new City(2, "TestCountry", "NewCity");
+        Forecast existing = new Forecast();
+        existing.setCity(previousCity);
+        ForecastDto updatedDto = new ForecastDto(1, 2, dto.getDate(), 15.0, 25.0, 80.0, 10.0);
+
+        when(forecastRepository.findById(1)).thenReturn(Optional.of(existing));
+        when(cityRepository.findById(2)).thenReturn(Optional.of(newCity));
+        when(forecastRepository.saveAndFlush(existing)).thenReturn(existing);
+        when(forecastMapper.toDto(existing)).thenReturn(updatedDto);
+
+        ForecastDto result = forecastService.update(dto, 1);
+
+        assertThat(result).isEqualTo(updatedDto);
+        assertThat(existing.getCity().getId()).isEqualTo(2);
+        verify(forecastCache).evictSingleForecast(1);
+        verify(forecastCache).evictForecastsByCity(previousCity.getId());
+        verify(forecastCache).evictForecastsByCity(newCity.getId());
+        verify(forecastCache).evictForecastsByCityAndDate(newCity.getId(), dto.getDate());
     }
 
     @Test
@@ -279,11 +343,9 @@ class ForecastServiceImplTest {
 
     @Test
     void getForecastsByCityId_loadsFromRepoIfNotCached() {
-        Forecast forecast = new Forecast();
         ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
         when(forecastCache.getForecastsByCityId(1)).thenReturn(null);
-        when(forecastRepository.findByCityId(1)).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(dto);
+        when(forecastRepository.findDtosByCityId(1)).thenReturn(List.of(dto));
 
         List<ForecastDto> result = forecastService.getForecastsByCityId(1);
 
@@ -318,16 +380,39 @@ class ForecastServiceImplTest {
 
     @Test
     void getForecastsByNameAndDate_loadsFromRepoIfNotCached() {
-        Forecast forecast = new Forecast();
         ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
         when(forecastCache.getForecastsByNameAndDate("Moscow", LocalDate.now())).thenReturn(null);
-        when(forecastRepository.findForecastsByNameAndDate("Moscow", LocalDate.now())).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(dto);
+        when(cityRepository.findIdsByName("Moscow")).thenReturn(List.of(1));
+        when(forecastRepository.findDtosByCityIdsAndDate(List.of(1), LocalDate.now()))
+                .thenReturn(List.of(dto));
 
         List<ForecastDto> result = forecastService.getForecastsByNameAndDate("Moscow", LocalDate.now());
 
         assertThat(result).hasSize(1).containsExactly(dto);
-        verify(forecastCache).cacheForecastsByNameAndDate("Moscow", LocalDate.now(), result);
+        verify(forecastCache).cacheForecastsByNameAndDate("Moscow", LocalDate.now(), List.of(1), result);
+    }
+
+    @Test
+    void getForecastsByNameAndDate_usesRegistryWithoutCityQueries() {
+        when(cityRepository.findAll()).thenReturn(List.of(new City(1, "Russia", "Moscow")));
+
+        forecastService.getForecastsByNameAndDate(" moscow ", LocalDate.now());
+        forecastService.getForecastsByNameAndDate("MOSCOW", LocalDate.now());
+
+        verify(cityRepository, times(1)).findAll();
+        verify(cityRepository, never()).findIdsByName(any());
+        verify(forecastRepository, times(2)).findDtosByCityIdsAndDate(List.of(1), LocalDate.now());
+    }
+
+    @Test
+    void getForecastsByNameAndDate_unknownCitySkipsForecastQuery() {
+        List<ForecastDto> result =
+                forecastService.getForecastsByNameAndDate("Atlantis", LocalDate.now());
+
+        assertThat(result).isEmpty();
+        verify(forecastRepository, never()).findDtosByCityIdsAndDate(any(), any());
+        verify(forecastCache)
+                .cacheForecastsByNameAndDate("Atlantis", LocalDate.now(), List.of(), result);
     }
 
     @ParameterizedTest
@@ -351,72 +436,51 @@ class ForecastServiceImplTest {
     }
 
     @Test
-    void findByFilters_filtersCorrectly() {
-        City city = new City(1, "TestCountry", "Moscow");
+    void findByFilters_returnsMappedPageFromRepository() {
         Forecast forecast = new Forecast();
-        forecast.setCity(city);
-        forecast.setDate(LocalDate.of(2023, 1, 1));
-        forecast.setTemperatureMin(5.0);
-        forecast.setTemperatureMax(10.0);
+        ForecastDto dto = new ForecastDto(1, 1, LocalDate.of(2023, 1, 1), 5.0, 10.0, 80.0, 10.0);
 
-        when(forecastRepository.findAll()).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(new ForecastDto(1, 1, LocalDate.of(2023, 1, 1), 5.0, 10.0, 80.0, 10.0));
+        when(forecastRepository.findByFilters(any(), eq(PageRequest.of(2, 50, Sort.by("id")))))
+                .thenReturn(List.of(forecast));
+        when(forecastMapper.toDto(forecast)).thenReturn(dto);
 
-        List<ForecastDto> result = forecastService.findByFilters("Moscow", LocalDate.of(2023, 1, 1), 4.0, 11.0);
+        List<ForecastDto> result = forecastService.findByFilters("Moscow", LocalDate.of(2023, 1, 1), 4.0, 11.0, 2, 50);
 
-        assertThat(result).hasSize(1);
+        assertThat(result).hasSize(1).containsExactly(dto);
     }
 
     @Test
     void findByFilters_emptyResultIfNoMatch() {
-        City city = new City(1, "TestCountry", "Moscow");
-        Forecast forecast = new Forecast();
-        forecast.setCity(city);
-        forecast.setDate(LocalDate.of(2023, 1, 1));
-        forecast.setTemperatureMin(5.0);
-        forecast.setTemperatureMax(10.0);
-
-        when(forecastRepository.findAll()).thenReturn(List.of(forecast));
+        when(forecastRepository.findByFilters(any(), any())).thenReturn(List.of());
 
-        List<ForecastDto> result = forecastService.findByFilters("London", LocalDate.of(2023, 1, 1), 4.0, 11.0);
+        List<ForecastDto> result = forecastService.findByFilters("London", LocalDate.of(2023, 1, 1), 4.0, 11.0, 0, 100);
 
         assertThat(result).isEmpty();
+        verify(forecastRepository, never()).findAll();
     }
 
     @Test
-    void findByFilters_nullParameters() {
-        City city = new City(1, "TestCountry", "Moscow");
-        Forecast forecast = new Forecast();
-        forecast.setCity(city);
-        forecast.setDate(LocalDate.of(2023, 1, 1));
-        forecast.setTemperatureMin(5.0);
-        forecast.setTemperatureMax(10.0);
-        ForecastDto dto = new ForecastDto(1, 1, LocalDate.of(2023, 1, 1), 5.0, 10.0, 80.0, 10.0);
-
-        when(forecastRepository.findAll()).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(dto);
-
-        List<ForecastDto> result = forecastService.findByFilters(null, null, null, null);
-
-        assertThat(result).hasSize(1).containsExactly(dto);
+    void findByFilters_throwsIfPageSizeTooLarge() {
+        assertThatThrownBy(() -> forecastService.findByFilters(null, null, null, null, 0, 1001))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Некорректные параметры страницы");
+        verifyNoInteractions(forecastRepository);
     }
 
     @Test
-    void findByFilters_partialParameters() {
-        City city = new City(1, "TestCountry", "Moscow");
-        Forecast forecast = new Forecast();
-        forecast.setCity(city);
-        forecast.setDate(LocalDate.of(2023, 1, 1));
-        forecast.setTemperatureMin(5.0);
-        forecast.setTemperatureMax(10.0);
-        ForecastDto dto = new ForecastDto(1, 1, LocalDate.of(2023, 1, 1), 5.0, 10.0, 80.0, 10.0);
-
-        when(forecastRepository.findAll()).thenReturn(List.of(forecast));
-        when(forecastMapper.toDto(forecast)).thenReturn(dto);
-
-        List<ForecastDto> result = forecastService.findByFilters("Moscow", null, 4.0, null);
+    void findByFilters_throwsIfNegativePage() {
+        assertThatThrownBy(() -> forecastService.findByFilters(null, null, null, null, -1, 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Некорректные параметры страницы");
+    }
 
-        assertThat(result).hasSize(1).containsExactly(dto);
+    @Test
+    void findByFilters_throwsIfOffsetOverflowsInt() {
+        assertThatThrownBy(() -> forecastService.findByFilters(
+                null, null, null, null, Integer.MAX_VALUE / 100, 1000))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Некорректные параметры страницы");
+        verifyNoInteractions(forecastRepository);
     }
 
     @Test
@@ -439,22 +503,39 @@ class ForecastServiceImplTest {
         ForecastDto savedDto2 = new ForecastDto(2, 2, LocalDate.now(), 15.0, 25.0, 80.0, 10.0);
 
         when(cityRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(city1, city2));
-        when(forecastRepository.existsByCityAndDate(any(), any())).thenReturn(false);
+        when(forecastRepository.findKeysByCityIdsAndDates(anyCollection(), anyCollection()))
+                .thenReturn(List.of());
         when(forecastMapper.toEntity(dto1)).thenReturn(entity1);
         when(forecastMapper.toEntity(dto2)).thenReturn(entity2);
-        when(forecastRepository.saveAll(anyList())).thenReturn(List.of(saved1, saved2));
+        when(forecastRepository.insertAll(List.of(entity1, entity2)))
+                .thenReturn(List.of(saved1, saved2));
         when(forecastMapper.toDto(saved1)).thenReturn(savedDto1);
         when(forecastMapper.toDto(saved2)).thenReturn(savedDto2);
 
         List<ForecastDto> result = forecastService.createBulk(List.of(dto1, dto2));
 
         assertThat(result).hasSize(2).containsExactly(savedDto1, savedDto2);
-        verify(forecastCache).cacheSingleForecast(savedDto1);
-        verify(forecastCache).cacheSingleForecast(savedDto2);
+        assertThat(entity1.getCity()).isEqualTo(city1);
+        verify(forecastRepository, times(1))
+                .findKeysByCityIdsAndDates(anyCollection(), anyCollection());
         verify(forecastCache).evictForecastsByCity(1);
         verify(forecastCache).evictForecastsByCity(2);
     }
 
+    @Test
+    void createBulk_throwsIfSameCityAndDateRepeated() {
+        LocalDate date = LocalDate.now();
+        ForecastDto dto1 = new ForecastDto(null, 1, date, 10.0, 20.0, 80.0, 10.0);
+        ForecastDto dto2 = new ForecastDto(null, 1, date, 12.0, 22.0, 80.0, 10.0);
+        when(cityRepository.findAllById(Set.of(1)))
+                .thenReturn(List.of(new City(1, "TestCountry1", "City1")));
+
+        assertThatThrownBy(() -> forecastService.createBulk(List.of(dto1, dto2)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("указан несколько раз");
+        verify(forecastRepository, never()).insertAll(anyList());
+    }
+
     @Test
     void createBulk_throwsIfNullList() {
         assertThatThrownBy(() -> forecastService.createBulk(null))
@@ -489,8 +570,9 @@ class ForecastServiceImplTest {
                                     City city = new City(1, "TestCountry1", "City1");
                                     when(context.cityRepository().findAllById(Set.of(1)))
                                             .thenReturn(List.of(city));
-                                    when(context.forecastRepository().existsByCityAndDate(city, testDate))
-                                            .thenReturn(true);
+                                    when(context.forecastRepository().findKeysByCityIdsAndDates(
+                                            List.of(1), Set.of(testDate)))
+                                            .thenReturn(List.of(new ForecastKey(1, testDate)));
                                 }
                         }
                 )
@@ -548,8 +630,11 @@ class ForecastServiceImplTest {
         ForecastDto dto = new ForecastDto(null, 1, LocalDate.now(), 30.0, 20.0, 80.0, 10.0);
         City city = new City(1, "TestCountry1", "City1");
         when(cityRepository.findAllById(Set.of(1))).thenReturn(List.of(city));
-        when(forecastRepository.existsByCityAndDate(city, dto.getDate())).thenReturn(false);
 
+        assertThatThrownBy(() -> forecastService.createBulk(List.of(dto)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Минимальная температура не может быть выше максимальной");
+        verify(forecastRepository, never()).insertAll(anyList());
     }
 
     @Test
@@ -558,24 +643,33 @@ class ForecastServiceImplTest {
         ForecastDto dto2 = new ForecastDto(2, 2, LocalDate.now(), 15.0, 25.0, 80.0, 10.0);
         City city1 = new City(1, "TestCountry1", "City1");
         City city2 = new City(2, "TestCountry2", "City2");
+        City oldCity = new City(3, "TestCountry3", "City3");
         Forecast existing1 = new Forecast();
         existing1.setId(1);
+        existing1.setCity(city1);
         Forecast existing2 = new Forecast();
         existing2.setId(2);
-        Forecast updated1 = new Forecast();
-        Forecast updated2 = new Forecast();
+        existing2.setCity(oldCity);
         ForecastDto updatedDto1 = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
         ForecastDto updatedDto2 = new ForecastDto(2, 2, LocalDate.now(), 15.0, 25.0, 80.0, 10.0);
 
-        when(forecastRepository.findAllById(List.of(1, 2))).thenReturn(List.of(existing1, existing2));
-        when(cityRepository.findById(1)).thenReturn(Optional.of(city1));
-        when(cityRepository.findById(2)).thenReturn(Optional.of(city2));
-        doNothing().when(forecastMapper).updateFromDto(dto1, existing1);
-        doNothing().when(forecastMapper).updateFromDto(dto2, existing2);
-        when(forecastRepository.save(existing1)).thenReturn(updated1);
-        when(forecastRepository.save(existing2)).thenReturn(updated2);
-        when(forecastMapper.toDto(updated1)).thenReturn(updatedDto1);
-        when(forecastMapper.toDto(updated2)).thenReturn(updatedDto2);
+        when(forecastRepository.findAllById(List.of(1, 2))).thenReturn(List.of(existing2, existing1));
+        when(cityRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(city1, city2));
+        when(forecastMapper.toDto(existing1)).thenReturn(updatedDto1);
+        when(forecastMapper.toDto(existing2)).thenReturn(updatedDto2);
+
+        List<ForecastDto> result = forecastService.updateBulk(List.of(dto1, dto2));
+
+        assertThat(result).containsExactly(updatedDto1, updatedDto2);
+        assertThat(existing2.getCity()).isEqualTo(city2);
+        verify(forecastMapper).updateFromDto(dto1, existing1);
+        verify(forecastMapper).updateFromDto(dto2, existing2);
+        verify(forecastRepository).flush();
+        verify(forecastRepository, never()).save(any());
+        verify(cityRepository, never()).findById(any());
+        verify(forecastCache).evictForecastsByCity(1);
+        verify(forecastCache).evictForecastsByCity(2);
+        verify(forecastCache).evictForecastsByCity(3);
     }
 
     @Test
@@ -587,34 +681,51 @@ class ForecastServiceImplTest {
 
     @Test
     void updateBulk_throwsIfInvalidDto() {
+        ForecastDto dto = new ForecastDto(1, 1, LocalDate.now(), 30.0, 20.0, 80.0, 10.0);
+
+        assertThatThrownBy(() -> forecastService.updateBulk(List.of(dto)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Минимальная температура не может быть выше максимальной");
+        verify(forecastRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void updateBulk_throwsIfForecastNotFound() {
+        ForecastDto dto1 = new ForecastDto(1, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
+        ForecastDto dto2 = new ForecastDto(2, 1, LocalDate.now(), 10.0, 20.0, 80.0, 10.0);
         Forecast existing = new Forecast();
         existing.setId(1);
-        when(forecastRepository.findAllById(List.of(1))).thenReturn(List.of(existing));
-        when(cityRepository.findById(1)).thenReturn(Optional.of(new City(1, "TestCountry1", "City1")));
+        when(cityRepository.findAllById(Set.of(1)))
+                .thenReturn(List.of(new City(1, "TestCountry1", "City1")));
+        when(forecastRepository.findAllById(List.of(1, 2))).thenReturn(List.of(existing));
+
+        assertThatThrownBy(() -> forecastService.updateBulk(List.of(dto1, dto2)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("[2]");
+        verifyNoInteractions(forecastCache);
     }
 
     @Test
     void deleteBulk_successful() {
-        City city = new City(1, "TestCountry1", "City1");
-        Forecast forecast1 = new Forecast();
-        forecast1.setId(1);
-        forecast1.setCity(city);
-        forecast1.setDate(LocalDate.now());
-        Forecast forecast2 = new Forecast();
-        forecast2.setId(2);
-        forecast2.setCity(city);
-        forecast2.setDate(LocalDate.now());
+        when(forecastRepository.findCityIdsByIds(List.of(1, 2))).thenReturn(List.of(1));
+        when(forecastRepository.deleteByIds(List.of(1, 2))).thenReturn(2);
 
-        when(forecastRepository.findAllById(List.of(1, 2))).thenReturn(List.of(forecast1, forecast2));
+        forecastService.deleteBulk(List.of(1, 2, 2));
 
-        forecastService.deleteBulk(List.of(1, 2));
+        verify(forecastRepository).deleteByIds(List.of(1, 2));
+        verify(forecastRepository, never()).delete(any());
+        verify(forecastCache, times(1)).evictForecastsByCity(1);
+    }
 
-        verify(forecastRepository).delete(forecast1);
-        verify(forecastRepository).delete(forecast2);
-        verify(forecastCache).evictSingleForecast(1);
-        verify(forecastCache).evictSingleForecast(2);
-        verify(forecastCache, times(2)).evictForecastsByCity(1);
-        verify(forecastCache, times(2)).evictForecastsByCityAndDate(1, LocalDate.now());
+    @Test
+    void deleteBulk_throwsIfSomeForecastsMissing() {
+        when(forecastRepository.findCityIdsByIds(List.of(1, 2))).thenReturn(List.of(1));
+        when(forecastRepository.deleteByIds(List.of(1, 2))).thenReturn(1);
+
+        assertThatThrownBy(() -> forecastService.deleteBulk(List.of(1, 2)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Некоторые прогнозы не найдены");
+        verifyNoInteractions(forecastCache);
     }
 
     @Test
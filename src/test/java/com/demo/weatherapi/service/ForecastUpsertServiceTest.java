@@ -0,0 +1,140 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.cache.ForecastCache;
+import com.demo.weatherapi.dto.ForecastDto;
+import com.demo.weatherapi.dto.ForecastUpsertResult;
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.model.City;
+import com.demo.weatherapi.model.Forecast;
+import com.demo.weatherapi.repository.CityRepository;
+import com.demo.weatherapi.repository.ForecastRepository;
+import com.demo.weatherapi.repository.ForecastUpsertWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "forecast.bulk.batch-size=2")
+@ActiveProfiles("h2")
+@Import({ForecastUpsertService.class, ForecastUpsertWriter.class, CityRegistry.class,
+        ForecastCache.class})
+class ForecastUpsertServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 11);
+
+    @Autowired
+    private ForecastUpsertService upsertService;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    private City minsk;
+    private City brest;
+
+    @BeforeEach
+    void setUp() {
+        minsk = cityRepository.save(new City(null, "Беларусь", "Минск"));
+        brest = cityRepository.save(new City(null, "Беларусь", "Брест"));
+    }
+
+    @Test
+    void upsert_ShouldCreateNewAndUpdateExistingAcrossBatches() {
+        upsertService.upsert(List.of(
+                forecast(minsk, DAY, "Ясно"),
+                forecast(minsk, DAY.plusDays(1), "Ясно")));
+        forecastCache.cacheForecastsByCityId(minsk.getId(), List.of());
+
+        ForecastUpsertResult result = upsertService.upsert(List.of(
+                forecast(minsk, DAY, "Снег"),
+                forecast(minsk, DAY.plusDays(1), "Дождь"),
+                forecast(minsk, DAY.plusDays(2), "Облачно"),
+                forecast(brest, DAY, "Туман"),
+                forecast(brest, DAY.plusDays(1), "Ясно")));
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(forecastRepository.findDtosByCityId(minsk.getId()))
+                .extracting(ForecastDto::getDate, ForecastDto::getCondition)
+                .containsExactlyInAnyOrder(
+                        tuple(DAY, "Снег"),
+                        tuple(DAY.plusDays(1), "Дождь"),
+                        tuple(DAY.plusDays(2), "Облачно"));
+        assertThat(forecastRepository.count()).isEqualTo(5);
+        assertThat(forecastCache.getForecastsByCityId(minsk.getId())).isNotNull();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertThat(forecastCache.getForecastsByCityId(minsk.getId())).isNull();
+    }
+
+    @Test
+    void upsert_ShouldNotEvictCacheWhenTransactionRollsBack() {
+        forecastCache.cacheForecastsByCityId(minsk.getId(), List.of());
+
+        upsertService.upsert(List.of(forecast(minsk, DAY, "Ясно")));
+        TestTransaction.end();
+
+        assertThat(forecastCache.getForecastsByCityId(minsk.getId())).isNotNull();
+    }
+
+    @Test
+    void upsert_ShouldRejectRepeatedCityAndDate() {
+        List<ForecastDto> forecasts = List.of(
+                forecast(minsk, DAY, "Ясно"),
+                forecast(minsk, DAY, "Снег"));
+
+        assertThatThrownBy(() -> upsertService.upsert(forecasts))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("указан несколько раз");
+        assertThat(forecastRepository.count()).isZero();
+    }
+
+    @Test
+    void upsert_ShouldRejectUnknownCity() {
+        ForecastDto unknown = forecast(minsk, DAY, "Ясно");
+        unknown.setCityId(999_999);
+
+        assertThatThrownBy(() -> upsertService.upsert(List.of(unknown)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Города с ID не найдены: [999999]");
+    }
+
+    @Test
+    void uniqueIndex_ShouldRejectSecondForecastForSameCityAndDate() {
+        upsertService.upsert(List.of(forecast(minsk, DAY, "Ясно")));
+
+        Forecast duplicate = new Forecast();
+        duplicate.setCity(minsk);
+        duplicate.setDate(DAY);
+        duplicate.setTemperatureMin(1.0);
+        duplicate.setTemperatureMax(2.0);
+        duplicate.setCondition("Ясно");
+        duplicate.setHumidity(50.0);
+        duplicate.setWindSpeed(1.0);
+
+        assertThatThrownBy(() -> forecastRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static ForecastDto forecast(City city, LocalDate date, String condition) {
+        ForecastDto dto = new ForecastDto(null, city.getId(), date, -1.0, 4.0, 70.0, 3.0);
+        dto.setCondition(condition);
+        return dto;
+    }
+}
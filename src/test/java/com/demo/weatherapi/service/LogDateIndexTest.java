@@ -0,0 +1,82 @@
+package com.demo.weatherapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogDateIndexTest {
+
+    private static final String DAY_ONE = "2025-05-10 10:00:00 INFO  first\n"
+            + "2025-05-10 10:00:01 ERROR failed\n"
+            + "    at com.demo.weatherapi.Something\n";
+    private static final String DAY_TWO = "2025-05-11 09:00:00 INFO  second\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path source;
+    private Path indexFile;
+
+    @BeforeEach
+    void setUp() {
+        source = tempDir.resolve("app.log");
+        indexFile = tempDir.resolve("app.log.idx");
+    }
+
+    @Test
+    void find_ShouldReturnByteRangeOfDateIncludingContinuationLines() throws IOException {
+        Files.writeString(source, DAY_ONE + DAY_TWO);
+
+        LogDateIndex index = new LogDateIndex(source, indexFile);
+
+        assertThat(index.find("2025-05-10"))
+                .isEqualTo(new LogDateIndex.Range(0, DAY_ONE.length(), true));
+        assertThat(index.find("2025-05-11")).isEqualTo(new LogDateIndex.Range(
+                DAY_ONE.length(), DAY_ONE.length() + DAY_TWO.length(), true));
+        assertThat(index.find("2025-05-12")).isNull();
+    }
+
+    @Test
+    void find_ShouldIndexOnlyAppendedTailAfterReload() throws IOException {
+        Files.writeString(source, DAY_ONE + "2025-05-11 09:00");
+        new LogDateIndex(source, indexFile).update();
+        Files.writeString(source, ":00 INFO  second\n", StandardOpenOption.APPEND);
+
+        LogDateIndex reloaded = new LogDateIndex(source, indexFile);
+
+        assertThat(indexFile).exists();
+        assertThat(reloaded.find("2025-05-10").end()).isEqualTo(DAY_ONE.length());
+        assertThat(reloaded.find("2025-05-11")).isEqualTo(new LogDateIndex.Range(
+                DAY_ONE.length(), DAY_ONE.length() + DAY_TWO.length(), true));
+    }
+
+    @Test
+    void find_ShouldRebuildAfterRotation() throws IOException {
+        LogDateIndex index = new LogDateIndex(source, indexFile);
+        Files.writeString(source, DAY_ONE + DAY_TWO);
+        index.update();
+
+        Files.writeString(source, DAY_TWO);
+
+        assertThat(index.find("2025-05-10")).isNull();
+        assertThat(index.find("2025-05-11"))
+                .isEqualTo(new LogDateIndex.Range(0, DAY_TWO.length(), true));
+    }
+
+    @Test
+    void find_ShouldMarkInterleavedDateAsNotContiguous() throws IOException {
+        Files.writeString(source, DAY_ONE + DAY_TWO + "2025-05-10 23:59:59 INFO  late\n");
+
+        LogDateIndex.Range range = new LogDateIndex(source, indexFile).find("2025-05-10");
+
+        assertThat(range.contiguous()).isFalse();
+        assertThat(range.end()).isEqualTo(Files.size(source));
+    }
+}
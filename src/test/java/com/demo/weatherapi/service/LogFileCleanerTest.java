@@ -0,0 +1,57 @@
+package com.demo.weatherapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogFileCleanerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cleanup_ShouldRemoveExpiredFilesButKeepSourceLog() throws IOException {
+        Path expired = file("log-2025-05-10-1-a.log", 10, Duration.ofHours(30));
+        Path expiredTmp = file("log-2025-05-10-1-b.log.task.tmp", 10, Duration.ofHours(30));
+        Path freshTmp = file("log-2025-05-11-1-c.log.task.tmp", 10, Duration.ZERO);
+        Path fresh = file("log-2025-05-11-1-d.log", 10, Duration.ofHours(1));
+        Path source = file("app.log", 10, Duration.ofDays(7));
+
+        new LogFileCleaner(tempDir, DataSize.ofMegabytes(1), Duration.ofHours(24)).cleanup();
+
+        assertThat(expired).doesNotExist();
+        assertThat(expiredTmp).doesNotExist();
+        assertThat(freshTmp).exists();
+        assertThat(fresh).exists();
+        assertThat(source).exists();
+    }
+
+    @Test
+    void cleanup_ShouldRemoveOldestFilesOverSizeLimit() throws IOException {
+        Path oldest = file("log-2025-05-09-1-a.log", 400, Duration.ofHours(3));
+        Path older = file("log-2025-05-10-1-b.log", 400, Duration.ofHours(2));
+        Path newest = file("log-2025-05-11-1-c.log", 400, Duration.ofHours(1));
+
+        new LogFileCleaner(tempDir, DataSize.ofBytes(1000), Duration.ofHours(24)).cleanup();
+
+        assertThat(oldest).doesNotExist();
+        assertThat(older).exists();
+        assertThat(newest).exists();
+    }
+
+    private Path file(String name, int size, Duration age) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
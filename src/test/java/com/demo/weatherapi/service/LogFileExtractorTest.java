@@ -0,0 +1,94 @@
+package com.demo.weatherapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogFileExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void extract_ShouldCopyOnlyEntriesOfDateAcrossBufferBoundaries() throws IOException {
+        Path source = tempDir.resolve("app.log");
+        Path target = tempDir.resolve("out.log");
+        Files.writeString(source, String.join("\n",
+                "2025-05-10 10:00:00 INFO  first day",
+                "2025-05-11 10:00:00 INFO  " + "x".repeat(100),
+                "2025-05-11 10:00:01 WARN  second",
+                "    at com.demo.weatherapi.Something",
+                "2025-05-11 10:00:02 INFO  third",
+                "2025-05-12 00:00:00 INFO  next day",
+                "2025-05-11 late tail"));
+        List<Long> progress = new ArrayList<>();
+
+        long written = LogFileExtractor.extract(source, "2025-05-11", target, progress::add,
+                0, Long.MAX_VALUE, 16);
+
+        String expected = "2025-05-11 10:00:00 INFO  " + "x".repeat(100) + "\n"
+                + "2025-05-11 10:00:01 WARN  second\n"
+                + "    at com.demo.weatherapi.Something\n"
+                + "2025-05-11 10:00:02 INFO  third\n"
+                + "2025-05-11 late tail";
+        assertThat(Files.readString(target)).isEqualTo(expected);
+        assertThat(written).isEqualTo(expected.length());
+        assertThat(progress).isSorted().last().isEqualTo(Files.size(source));
+    }
+
+    @Test
+    void extract_ShouldWriteNothingWhenDateIsAbsent() throws IOException {
+        Path source = tempDir.resolve("app.log");
+        Path target = tempDir.resolve("out.log");
+        Files.writeString(source, "2025-05-10 INFO a\n2025-05-12 INFO b\n");
+
+        assertThat(LogFileExtractor.extract(source, "2025-05-11", target, bytes -> { }))
+                .isZero();
+        assertThat(target).isEmptyFile();
+    }
+
+    @Test
+    void extract_ShouldMatchCopyRangeOfIndexedDate() throws IOException {
+        Path source = tempDir.resolve("app.log");
+        Files.writeString(source, "2025-05-10 23:59:58 INFO  before\n"
+                + "    at com.demo.weatherapi.Before\n"
+                + "2025-05-11 00:00:00 ERROR failed\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "    at com.demo.weatherapi.Something\n"
+                + "2025-05-11 00:00:01 INFO  after\n"
+                + "2025-05-12 00:00:00 INFO  next day\n"
+                + "    at com.demo.weatherapi.After\n");
+        LogDateIndex.Range range = new LogDateIndex(source, tempDir.resolve("app.log.idx"))
+                .find("2025-05-11");
+        Path copied = tempDir.resolve("copied.log");
+        Path extracted = tempDir.resolve("extracted.log");
+
+        LogFileExtractor.copyRange(source, range.start(), range.end(), copied, bytes -> { });
+        LogFileExtractor.extract(source, "2025-05-11", extracted, bytes -> { },
+                0, Long.MAX_VALUE, 16);
+
+        assertThat(range.contiguous()).isTrue();
+        assertThat(Files.readString(extracted))
+                .contains("java.lang.IllegalStateException: boom")
+                .isEqualTo(Files.readString(copied));
+    }
+
+    @Test
+    void copyRange_ShouldCopyExactByteRange() throws IOException {
+        Path source = tempDir.resolve("app.log");
+        Path target = tempDir.resolve("out.log");
+        Files.writeString(source, "2025-05-10 a\n2025-05-11 b\n2025-05-12 c\n");
+
+        long copied = LogFileExtractor.copyRange(source, 13, 26, target, bytes -> { });
+
+        assertThat(copied).isEqualTo(13);
+        assertThat(Files.readString(target)).isEqualTo("2025-05-11 b\n");
+    }
+}
@@ -1,14 +1,19 @@
 package com.demo.weatherapi.service;
 
+import com.demo.weatherapi.exception.BadRequestException;
+import com.demo.weatherapi.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.task.TaskExecutor;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -19,6 +24,9 @@ class LogServiceTest {
     @Mock
     private TaskExecutor taskExecutor;
 
+    @Spy
+    private LogTaskRegistry taskRegistry = new LogTaskRegistry(100, Duration.ofHours(1));
+
     @InjectMocks
     private LogService logService;
 
@@ -33,6 +41,39 @@ class LogServiceTest {
         verify(taskExecutor).execute(any(Runnable.class));
     }
 
+    @Test
+    void createLogFileAsync_ShouldJoinInFlightTaskForSameDate() {
+        String first = logService.createLogFileAsync(testDate);
+        String second = logService.createLogFileAsync(testDate);
+        String otherDate = logService.createLogFileAsync("2023-01-02");
+
+        assertNotEquals(first, second);
+        assertSame(logService.getTaskInfo(first).getFuture(),
+                logService.getTaskInfo(second).getFuture());
+        assertNotSame(logService.getTaskInfo(first).getFuture(),
+                logService.getTaskInfo(otherDate).getFuture());
+        verify(taskExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void cancelTask_ShouldKeepSharedExtractionUntilLastJoinerCancels() {
+        String first = logService.createLogFileAsync(testDate);
+        String second = logService.createLogFileAsync(testDate);
+        Future<?> future = logService.getTaskInfo(first).getFuture();
+
+        logService.cancelTask(first);
+
+        assertEquals(LogService.STATUS_CANCELLED, logService.getTaskInfo(first).getStatus());
+        assertEquals(LogService.STATUS_PROCESSING, logService.getTaskInfo(second).getStatus());
+        assertFalse(future.isCancelled());
+
+        logService.cancelTask(second);
+
+        assertEquals(LogService.STATUS_CANCELLED, logService.getTaskInfo(second).getStatus());
+        assertTrue(future.isCancelled());
+        verify(taskExecutor, times(1)).execute(any(Runnable.class));
+    }
+
     @Test
     void getTaskInfo_ShouldReturnNotFoundForInvalidTaskId() {
         LogService.TaskInfo taskInfo = logService.getTaskInfo("invalid-task-id");
@@ -61,10 +102,16 @@ class LogServiceTest {
     }
 
     @Test
-    void getLogFileStream_ShouldThrowWhenTaskNotCompleted() {
+    void getLogFilePath_ShouldThrowWhenTaskNotCompleted() {
         String taskId = logService.createLogFileAsync(testDate);
 
-        assertThrows(IOException.class, () -> logService.getLogFileStream(taskId));
+        assertThrows(BadRequestException.class, () -> logService.getLogFilePath(taskId));
+    }
+
+    @Test
+    void getLogFilePath_ShouldThrowForUnknownTask() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> logService.getLogFilePath("invalid-task-id"));
     }
 
     @Test
@@ -78,4 +125,53 @@ class LogServiceTest {
         assertEquals(LogService.STATUS_FAILED, updatedTask.getStatus());
         assertEquals(testMessage, updatedTask.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void cancelTask_ShouldInterruptRunningTaskAndReleaseDate() {
+        String taskId = logService.createLogFileAsync(testDate);
+        Future<?> future = logService.getTaskInfo(taskId).getFuture();
+
+        logService.cancelTask(taskId);
+
+        assertEquals(LogService.STATUS_CANCELLED, logService.getTaskInfo(taskId).getStatus());
+        assertTrue(future.isCancelled());
+        assertNotEquals(taskId, logService.createLogFileAsync(testDate));
+    }
+
+    @Test
+    void cancelTask_ShouldRemoveFinishedTask() {
+        String taskId = logService.createLogFileAsync(testDate);
+        logService.updateTaskStatus(taskId, LogService.STATUS_FAILED, "No logs for date");
+
+        logService.cancelTask(taskId);
+
+        assertEquals(LogService.STATUS_NOT_FOUND, logService.getTaskInfo(taskId).getStatus());
+        assertThrows(ResourceNotFoundException.class, () -> logService.cancelTask(taskId));
+    }
+
+    @Test
+    void updateTaskStatus_ShouldNotOverrideCancelledTask() {
+        String taskId = logService.createLogFileAsync(testDate);
+        logService.cancelTask(taskId);
+
+        logService.updateTaskStatus(taskId, LogService.STATUS_COMPLETED, "log.log");
+
+        assertEquals(LogService.STATUS_CANCELLED, logService.getTaskInfo(taskId).getStatus());
+        assertNull(logService.getTaskInfo(taskId).getResultFile());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listTasks_ShouldCountTasksByStatus() {
+        String failed = logService.createLogFileAsync(testDate);
+        logService.createLogFileAsync("2023-01-02");
+        logService.updateTaskStatus(failed, LogService.STATUS_FAILED, "No logs for date");
+
+        Map<String, Object> listing = logService.listTasks();
+
+        assertEquals(2, listing.get("total"));
+        Map<String, Long> counts = (Map<String, Long>) listing.get("counts");
+        assertEquals(1L, counts.get(LogService.STATUS_FAILED));
+        assertEquals(1L, counts.get(LogService.STATUS_PROCESSING));
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.exception.TooManyRequestsException;
+import com.demo.weatherapi.service.LogService.TaskInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogTaskRegistryTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void purgeExpired_ShouldRemoveOnlyFinishedTasksPastTtl() {
+        LogTaskRegistry registry = new LogTaskRegistry(10, Duration.ofMinutes(1), now::get);
+        TaskInfo running = task(LogService.STATUS_PROCESSING, 0);
+        TaskInfo expired = task(LogService.STATUS_COMPLETED, 0);
+        TaskInfo fresh = task(LogService.STATUS_FAILED, now.get());
+        registry.register("running", running);
+        registry.register("expired", expired);
+        registry.register("fresh", fresh);
+
+        registry.purgeExpired();
+
+        assertThat(registry.get("running")).isSameAs(running);
+        assertThat(registry.get("expired")).isNull();
+        assertThat(registry.get("fresh")).isSameAs(fresh);
+    }
+
+    @Test
+    void register_ShouldEvictOldestFinishedTaskWhenFull() {
+        LogTaskRegistry registry = new LogTaskRegistry(3, Duration.ofHours(1), now::get);
+        registry.register("running", task(LogService.STATUS_PROCESSING, 0));
+        registry.register("old", task(LogService.STATUS_COMPLETED, now.get() - 2000));
+        registry.register("recent", task(LogService.STATUS_COMPLETED, now.get() - 1000));
+
+        registry.register("new", task(LogService.STATUS_PROCESSING, now.get()));
+
+        assertThat(registry.size()).isEqualTo(3);
+        assertThat(registry.get("old")).isNull();
+        assertThat(registry.get("recent")).isNotNull();
+        assertThat(registry.get("running")).isNotNull();
+    }
+
+    @Test
+    void register_ShouldRejectWhenFullOfRunningTasks() {
+        LogTaskRegistry registry = new LogTaskRegistry(2, Duration.ofHours(1), now::get);
+        registry.register("first", task(LogService.STATUS_PROCESSING, 0));
+        registry.register("second", task(LogService.STATUS_PROCESSING, 0));
+
+        assertThatThrownBy(() -> registry.register("third",
+                task(LogService.STATUS_PROCESSING, 0)))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.countByStatus()).containsEntry(LogService.STATUS_PROCESSING, 2L);
+    }
+
+    private static TaskInfo task(String status, long lastUpdated) {
+        return new TaskInfo(status, lastUpdated, lastUpdated, null, null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.VisitStats;
+import com.demo.weatherapi.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+class VisitCounterServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private VisitCounterService visitCounterService;
+
+    @BeforeEach
+    void setUp() {
+        visitCounterService = new VisitCounterService(10, clock::get);
+    }
+
+    @Test
+    void incrementVisit_ShouldCapTrackedRoutesAndKeepHeavyHitters() {
+        visit("/forecast/{id}", 5000);
+        visit("/city/{id}", 3000);
+        for (int i = 0; i < 10_000; i++) {
+            visitCounterService.incrementVisit("/unknown/" + i);
+        }
+
+        VisitStats stats = visitCounterService.getStats(10);
+
+        assertThat(stats.getTrackedRoutes()).isEqualTo(10);
+        assertThat(stats.getTotalVisits()).isEqualTo(18_000);
+        assertThat(stats.getTopRoutes())
+                .extracting(VisitStats.RouteVisits::route)
+                .startsWith("/forecast/{id}", "/city/{id}");
+        assertThat(visitCounterService.getVisitCount("/forecast/{id}")).isEqualTo(5000);
+        assertThat(stats.getTopRoutes().get(1).error()).isZero();
+    }
+
+    @Test
+    void getStats_ShouldReturnTopRoutesInDescendingOrder() {
+        visit("/a", 1);
+        visit("/b", 3);
+        visit("/c", 2);
+
+        assertThat(visitCounterService.getStats(2).getTopRoutes())
+                .extracting(VisitStats.RouteVisits::route, VisitStats.RouteVisits::visits)
+                .containsExactly(
+                        tuple("/b", 3L),
+                        tuple("/c", 2L));
+    }
+
+    @Test
+    void getStats_ShouldCountVisitsPerRollingWindow() {
+        visit("/a", 10);
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        visit("/a", 5);
+
+        VisitStats stats = visitCounterService.getStats(1);
+
+        assertThat(stats.getWindows())
+                .extracting(VisitStats.WindowRate::window, VisitStats.WindowRate::visits)
+                .containsExactly(
+                        tuple("1m", 5L),
+                        tuple("5m", 15L),
+                        tuple("1h", 15L),
+                        tuple("24h", 15L));
+        assertThat(stats.getTopRoutes().get(0).lastMinute()).isEqualTo(5);
+        assertThat(stats.getTopRoutes().get(0).lastHour()).isEqualTo(15);
+
+        clock.addAndGet(Duration.ofHours(2).toNanos());
+        assertThat(visitCounterService.getStats(1).getWindows().get(2).visits()).isZero();
+    }
+
+    @Test
+    void getStats_ShouldRejectNonPositiveTopSize() {
+        assertThatThrownBy(() -> visitCounterService.getStats(0))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void drainUnflushed_ShouldReturnOnlyNewVisitsAndKeepRestoredOnes() {
+        visit("/a", 3);
+        assertThat(visitCounterService.drainUnflushed()).containsEntry("/a", 3L);
+
+        visit("/a", 2);
+        visit("/b", 1);
+        var deltas = visitCounterService.drainUnflushed();
+        assertThat(deltas).containsOnly(entry("/a", 2L), entry("/b", 1L));
+        assertThat(visitCounterService.getUnflushedTotal()).isZero();
+
+        visitCounterService.restoreUnflushed(deltas);
+        visit("/a", 1);
+
+        assertThat(visitCounterService.getUnflushedCount("/a")).isEqualTo(3);
+        assertThat(visitCounterService.getUnflushedTotal()).isEqualTo(4);
+        assertThat(visitCounterService.drainUnflushed())
+                .containsOnly(entry("/a", 3L), entry("/b", 1L));
+    }
+
+    @Test
+    void drainUnflushed_ShouldKeepVisitsOfEvictedRoutes() {
+        visitCounterService = new VisitCounterService(1, clock::get);
+        visit("/a", 2);
+        visit("/b", 1);
+
+        assertThat(visitCounterService.drainUnflushed())
+                .containsOnly(entry("/a", 2L), entry("/b", 1L));
+    }
+
+    private void visit(String route, int times) {
+        for (int i = 0; i < times; i++) {
+            visitCounterService.incrementVisit(route);
+        }
+    }
+}
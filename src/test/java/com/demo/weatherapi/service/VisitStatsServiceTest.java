@@ -0,0 +1,91 @@
+package com.demo.weatherapi.service;
+
+import com.demo.weatherapi.dto.VisitStats;
+import com.demo.weatherapi.model.VisitCount;
+import com.demo.weatherapi.repository.VisitCountRepository;
+import com.demo.weatherapi.repository.VisitCountWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({VisitStatsService.class, VisitCounterService.class, VisitCountWriter.class})
+class VisitStatsServiceTest {
+
+    @Autowired
+    private VisitStatsService visitStatsService;
+
+    @Autowired
+    private VisitCounterService visitCounterService;
+
+    @Autowired
+    private VisitCountRepository visitCountRepository;
+
+    @Autowired
+    private VisitCountWriter visitCountWriter;
+
+    @Test
+    void flush_ShouldAddDeltasToPersistedCounts() {
+        visit("/forecast/{id}", 3);
+        visit("/city/all", 1);
+        visitStatsService.flush();
+        visit("/forecast/{id}", 2);
+        visitStatsService.flush();
+        visitStatsService.flush();
+
+        assertThat(visitCountRepository.findAll())
+                .extracting(VisitCount::getRoute, VisitCount::getVisits)
+                .containsExactlyInAnyOrder(tuple("/forecast/{id}", 5L), tuple("/city/all", 1L));
+        assertThat(visitCounterService.getUnflushedTotal()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addVisits_ShouldRollBackEarlierBatchesWhenLaterBatchFails() {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        deltas.put("/forecast/{id}", 3L);
+        deltas.put("/city/all", 1L);
+        deltas.put("/" + "x".repeat(3000), 1L);
+
+        assertThatThrownBy(() -> visitCountWriter.addVisits(deltas, 2))
+                .isInstanceOf(DataAccessException.class);
+
+        assertThat(visitCountRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void getStats_ShouldMergePersistedTotalsWithUnflushedVisits() {
+        visitCountRepository.saveAndFlush(new VisitCount("/city/all", 100));
+        visitCountRepository.saveAndFlush(new VisitCount("/forecast/all", 40));
+        visit("/forecast/all", 2);
+        visitStatsService.flush();
+        visit("/forecast/all", 3);
+        visit("/visits/stats", 1);
+
+        VisitStats stats = visitStatsService.getStats(2);
+
+        assertThat(stats.getTotalVisits()).isEqualTo(146);
+        assertThat(stats.getTopRoutes())
+                .extracting(VisitStats.RouteVisits::route, VisitStats.RouteVisits::visits)
+                .containsExactly(tuple("/city/all", 100L), tuple("/forecast/all", 45L));
+    }
+
+    private void visit(String route, int times) {
+        for (int i = 0; i < times; i++) {
+            visitCounterService.incrementVisit(route);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.demo.weatherapi.service.concurrency;
 
+import com.demo.weatherapi.dto.VisitStats;
 import com.demo.weatherapi.service.VisitCounterService;
 import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -9,7 +11,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class VisitCounterConcurrencyTest {
-    private final VisitCounterService counterService = new VisitCounterService();
+    private final VisitCounterService counterService = new VisitCounterService(1000);
     private final String testUrl = "/test-endpoint";
 
     @Test
@@ -28,4 +30,45 @@ class VisitCounterConcurrencyTest {
                 .as("Счетчик должен точно отражать %d запросов", threadCount)
                 .isEqualTo(threadCount);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testContendedVisitsOnHotAndColdRoutes() throws InterruptedException {
+        final int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        final int visitsPerThread = 200_000;
+        final String coldUrl = "/forecast/{id}";
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threadCount; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < visitsPerThread; i++) {
+                    counterService.incrementVisit(i % 10 == 0 ? coldUrl : testUrl);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        long total = (long) threadCount * visitsPerThread;
+        assertThat(counterService.getVisitCount(testUrl)).isEqualTo(total - total / 10);
+        assertThat(counterService.getVisitCount(coldUrl)).isEqualTo(total / 10);
+        assertThat(counterService.getStats(10).getTotalVisits()).isEqualTo(total);
+        assertThat(counterService.getStats(10).getTopRoutes())
+                .extracting(VisitStats.RouteVisits::route)
+                .containsExactly(testUrl, coldUrl);
+    }
+
+    @Test
+    void testUnknownRouteHasZeroVisits() {
+        assertThat(counterService.getVisitCount("/unknown")).isZero();
+        assertThat(counterService.getStats(10).getTopRoutes()).isEmpty();
+    }
+}